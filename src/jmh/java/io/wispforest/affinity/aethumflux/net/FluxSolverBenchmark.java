@@ -0,0 +1,96 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one snapshot and solve of the {@link FluxSolver}. The solver only sees
+ * the flat list of members and the total flux and capacity of the nodes, so the
+ * shape of the network does not matter - what does is how many members there
+ * are, how they are split between prioritized and normal links and how full the
+ * network is, which decides whether the equal-share pass suffices or the
+ * remainder has to be handed out as well
+ * <p>
+ * Run with {@code ./gradlew jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluxSolverBenchmark {
+
+    private static final long MEMBER_CAPACITY = 128000;
+    private static final long NODE_CAPACITY = 16000;
+    private static final long TRANSFER_RATE = 2560;
+
+    private static final AethumLink.Type[] LINK_TYPES = AethumLink.Type.values();
+
+    @Param({"16", "256", "4096"})
+    public int members;
+
+    /**
+     * How full the nodes of the network are, as a fraction of their capacity
+     */
+    @Param({"0", "0.5", "1"})
+    public double networkFill;
+
+    private long[] memberFlux;
+    private AethumLink.Type[] memberLinkTypes;
+    private long networkCapacity;
+
+    private final FluxSolver solver = new FluxSolver();
+
+    @Setup
+    public void setup() {
+        var random = new Random(0);
+
+        this.memberFlux = new long[this.members];
+        this.memberLinkTypes = new AethumLink.Type[this.members];
+
+        for (int i = 0; i < this.members; i++) {
+            this.memberFlux[i] = random.nextLong(MEMBER_CAPACITY + 1);
+            this.memberLinkTypes[i] = LINK_TYPES[random.nextInt(LINK_TYPES.length)];
+        }
+
+        // One node for every eight members, like a node with all of its link slots used
+        this.networkCapacity = Math.max(1, this.members / 8) * NODE_CAPACITY;
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        long networkFlux = (long) (this.networkCapacity * this.networkFill);
+
+        // Push links are served by the member itself, outside of the solve
+        for (int i = 0; i < this.members; i++) {
+            if (this.memberLinkTypes[i] == AethumLink.Type.PUSH) networkFlux += Math.min(TRANSFER_RATE, this.memberFlux[i]);
+        }
+
+        this.solver.reset(networkFlux, this.networkCapacity);
+
+        for (int i = 0; i < this.members; i++) {
+            if (this.memberLinkTypes[i] == AethumLink.Type.PRIORITIZED) this.addMember(i);
+        }
+
+        this.solver.endPrioritizedMembers();
+
+        for (int i = 0; i < this.members; i++) {
+            if (this.memberLinkTypes[i] == AethumLink.Type.NORMAL) this.addMember(i);
+        }
+
+        this.solver.solve();
+
+        for (int i = 0; i < this.solver.memberCount(); i++) {
+            blackhole.consume(this.solver.plannedTransfer(i));
+        }
+    }
+
+    private void addMember(int idx) {
+        long flux = this.memberFlux[idx];
+        this.solver.addMember(Math.min(TRANSFER_RATE, flux), Math.min(TRANSFER_RATE, MEMBER_CAPACITY - flux));
+    }
+}
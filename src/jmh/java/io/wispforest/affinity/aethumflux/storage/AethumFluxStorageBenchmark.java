@@ -0,0 +1,57 @@
+package io.wispforest.affinity.aethumflux.storage;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares moving flux into and back out of an {@link AethumFluxStorage} through
+ * committed transactions against the direct, transaction-free path which the flux
+ * network uses. Every invocation inserts and then extracts the same amount, so the
+ * storage stays at the same fill level throughout
+ * <p>
+ * Run with {@code ./gradlew jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AethumFluxStorageBenchmark {
+
+    private static final long CAPACITY = 128000;
+    private static final long TRANSFER_RATE = 2560;
+
+    private long commits = 0;
+    private AethumFluxStorage storage;
+
+    @Setup
+    public void setup() {
+        this.storage = new AethumFluxStorage(CAPACITY, TRANSFER_RATE, TRANSFER_RATE, () -> this.commits++);
+        this.storage.setFlux(CAPACITY / 2);
+    }
+
+    @Benchmark
+    public long transactional() {
+        long moved;
+
+        try (var transaction = Transaction.openOuter()) {
+            moved = this.storage.insert(TRANSFER_RATE, transaction);
+            transaction.commit();
+        }
+
+        try (var transaction = Transaction.openOuter()) {
+            moved -= this.storage.extract(TRANSFER_RATE, transaction);
+            transaction.commit();
+        }
+
+        return moved;
+    }
+
+    @Benchmark
+    public long direct() {
+        return this.storage.insertDirect(TRANSFER_RATE) - this.storage.extractDirect(TRANSFER_RATE);
+    }
+}
@@ -20,6 +20,44 @@ public class AffinityConfigModel {
 
     // ---
 
+    @SectionHeader("performance")
+    @RestartRequired
+    @RangeConstraint(min = 1, max = 64)
+    public int fluxNetworkSolverThreads = 1;
+
+    @RangeConstraint(min = 0, max = 1000000)
+    public int parallelFluxSolverThreshold = 4096;
+
+    @RangeConstraint(min = 1, max = 200)
+    public int fluxSyncInterval = 10;
+
+    @RangeConstraint(min = 0, max = 1000000)
+    public long fluxSyncThreshold = 1000;
+
+    @RangeConstraint(min = 1, max = 1200)
+    public int dormantFluxNetworkRecheckInterval = 40;
+
+    @RangeConstraint(min = 0, max = 50000)
+    public int fluxNetworkTickBudget = 0;
+
+    public boolean fluxNetworkVirtualMemberCatchUp = false;
+
+    public boolean denseAethumDiffusion = false;
+
+    @RangeConstraint(min = 1, max = 200)
+    public int denseAethumDiffusionInterval = 20;
+
+    @RangeConstraint(min = 1, max = 200)
+    public int chunkAethumSyncInterval = 10;
+
+    @RangeConstraint(min = 0, max = 100)
+    public double chunkAethumSyncThreshold = .5;
+
+    @RangeConstraint(min = 1, max = 16)
+    public int aethumMapRenderConcurrency = 2;
+
+    // ---
+
     @SectionHeader("experimental")
     public boolean theSkyIrisIntegration = false;
 
@@ -0,0 +1,146 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The links of a single network member, keyed by the packed position of
+ * the link target. The position sets handed out by {@link #positions()}
+ * and {@link #positionsByType(AethumLink.Type)} are cached until the next
+ * mutation and never change afterwards, so they may be held on to and
+ * iterated while links are added or removed
+ */
+public class AethumLinkTable {
+
+    private static final AethumLink.Type[] TYPES = AethumLink.Type.values();
+
+    private final Long2ByteOpenHashMap links = new Long2ByteOpenHashMap();
+
+    private @Nullable Set<BlockPos> positions = null;
+    private final Map<AethumLink.Type, Set<BlockPos>> positionsByType = new EnumMap<>(AethumLink.Type.class);
+
+    public AethumLinkTable() {
+        this.links.defaultReturnValue((byte) -1);
+    }
+
+    /**
+     * @return {@code true} if this table changed as a result of the call
+     */
+    public boolean put(BlockPos pos, AethumLink.Type type) {
+        return this.put(pos.asLong(), type);
+    }
+
+    public boolean put(long pos, AethumLink.Type type) {
+        byte previous = this.links.put(pos, (byte) type.ordinal());
+        if (previous == type.ordinal()) return false;
+
+        this.invalidateViews();
+        return true;
+    }
+
+    /**
+     * @return {@code true} if a link to {@code pos} existed and was removed
+     */
+    public boolean remove(BlockPos pos) {
+        if (this.links.remove(pos.asLong()) == -1) return false;
+
+        this.invalidateViews();
+        return true;
+    }
+
+    public void clear() {
+        if (this.links.isEmpty()) return;
+
+        this.links.clear();
+        this.invalidateViews();
+    }
+
+    public boolean contains(BlockPos pos) {
+        return this.links.containsKey(pos.asLong());
+    }
+
+    /**
+     * @return The type of the link to {@code pos}, or
+     * {@code null} if there is no such link
+     */
+    public @Nullable AethumLink.Type get(BlockPos pos) {
+        byte type = this.links.get(pos.asLong());
+        return type == -1 ? null : TYPES[type];
+    }
+
+    public int size() {
+        return this.links.size();
+    }
+
+    public boolean isEmpty() {
+        return this.links.isEmpty();
+    }
+
+    public void forEach(BiConsumer<BlockPos, AethumLink.Type> action) {
+        for (var entry : this.links.long2ByteEntrySet()) {
+            action.accept(BlockPos.fromLong(entry.getLongKey()), TYPES[entry.getByteValue()]);
+        }
+    }
+
+    /**
+     * @return The targets of all links in this table
+     */
+    public Set<BlockPos> positions() {
+        if (this.positions == null) {
+            var positions = new ObjectOpenHashSet<BlockPos>(this.links.size());
+            this.links.keySet().forEach(pos -> positions.add(BlockPos.fromLong(pos)));
+
+            this.positions = Collections.unmodifiableSet(positions);
+        }
+
+        return this.positions;
+    }
+
+    /**
+     * @return The targets of all links of the given type in this table
+     */
+    public Set<BlockPos> positionsByType(AethumLink.Type type) {
+        var cached = this.positionsByType.get(type);
+        if (cached != null) return cached;
+
+        var positions = new ObjectOpenHashSet<BlockPos>();
+        for (var entry : this.links.long2ByteEntrySet()) {
+            if (entry.getByteValue() != type.ordinal()) continue;
+            positions.add(BlockPos.fromLong(entry.getLongKey()));
+        }
+
+        cached = Collections.unmodifiableSet(positions);
+        this.positionsByType.put(type, cached);
+
+        return cached;
+    }
+
+    /**
+     * @return The packed positions of all link targets, in
+     * the same order as the types returned by {@link #packTypes()}
+     */
+    public long[] packPositions() {
+        return this.links.keySet().toLongArray();
+    }
+
+    /**
+     * @return The ordinals of all link types, in the same
+     * order as the positions returned by {@link #packPositions()}
+     */
+    public byte[] packTypes() {
+        return this.links.values().toByteArray();
+    }
+
+    private void invalidateViews() {
+        this.positions = null;
+        this.positionsByType.clear();
+    }
+}
@@ -76,9 +76,11 @@ public interface AethumNetworkMember extends AethumFluxContainer {
      */
     static Set<BlockPos> traverseNetwork(World world, BlockPos initialMember, BiConsumer<AethumNetworkMember, Boolean> callback) {
         var members = new HashSet<BlockPos>();
+        var discovered = new HashSet<BlockPos>();
 
         var queue = new ArrayDeque<BlockPos>();
         queue.add(initialMember);
+        discovered.add(initialMember);
 
         while (!queue.isEmpty()) {
             var memberPos = queue.poll();
@@ -92,6 +94,7 @@ public interface AethumNetworkMember extends AethumFluxContainer {
                     if (multiblockMemberPos.equals(memberPos)) continue;
 
                     members.add(multiblockMemberPos);
+                    discovered.add(multiblockMemberPos);
 
                     var multiblockMember = Affinity.AETHUM_MEMBER.find(world, multiblockMemberPos, null);
                     if (multiblockMember == null) continue;
@@ -103,8 +106,7 @@ public interface AethumNetworkMember extends AethumFluxContainer {
             callback.accept(peer, false);
 
             for (var neighbor : peer.linkedMembers()) {
-                if (members.contains(neighbor) || queue.contains(neighbor)) continue;
-                queue.add(neighbor);
+                if (discovered.add(neighbor)) queue.add(neighbor);
             }
         }
 
@@ -54,4 +54,12 @@ public interface AethumNetworkNode extends AethumNetworkMember {
      * {@link AethumLink.Type#NORMAL} - this also specifically excludes other nodes
      */
     Collection<AethumNetworkMember> membersByLinkType(AethumLink.Type type);
+
+    /**
+     * Called when the state of a member linked to this node changed in a way
+     * which could affect flux transfer, for example its stored flux or transfer rate
+     *
+     * @param pos The position of the member that changed
+     */
+    default void onLinkedMemberChanged(BlockPos pos) {}
 }
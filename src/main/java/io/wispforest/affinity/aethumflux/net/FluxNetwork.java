@@ -0,0 +1,413 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import io.wispforest.affinity.aethumflux.storage.AethumFluxContainer;
+import io.wispforest.affinity.blockentity.impl.AethumFluxNodeBlockEntity;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+
+/**
+ * A set of flux nodes which are connected to each other through
+ * node-to-node links. Networks are owned by the
+ * {@link io.wispforest.affinity.component.FluxNetworkComponent} of their
+ * world, which keeps them up-to-date as nodes join, leave and get linked or unlinked
+ */
+public class FluxNetwork {
+
+    /**
+     * The maximum amount of ticks a deferred network
+     * catches up on when it is ticked again
+     */
+    public static final int MAX_CATCH_UP_TICKS = 20;
+
+    private final Map<BlockPos, AethumFluxNodeBlockEntity> nodes = new HashMap<>();
+    private final Map<BlockPos, VirtualFluxNode> virtualNodes = new HashMap<>();
+
+    private final FluxSolver solver = new FluxSolver();
+    private AethumFluxContainer[] members = new AethumFluxContainer[0];
+    private boolean transferred = false;
+
+    private boolean dormant = false;
+    private int dormantTicks = 0;
+
+    private int deferredTicks = 0;
+    private int elapsedTicks = 1;
+
+    private long tickCost = 0;
+    private long lastTickCost = 0;
+
+    // ----------
+    // Membership
+    // ----------
+
+    public Collection<AethumFluxNodeBlockEntity> nodes() {
+        return Collections.unmodifiableCollection(this.nodes.values());
+    }
+
+    public boolean contains(BlockPos nodePos) {
+        return this.nodes.containsKey(nodePos) || this.virtualNodes.containsKey(nodePos);
+    }
+
+    /**
+     * @return The amount of loaded nodes in this network
+     */
+    public int size() {
+        return this.nodes.size();
+    }
+
+    /**
+     * @return {@code true} if this network has no loaded nodes and
+     * thus cannot transfer any flux, even if it has virtual nodes
+     */
+    public boolean isEmpty() {
+        return this.nodes.isEmpty();
+    }
+
+    public int virtualNodeCount() {
+        return this.virtualNodes.size();
+    }
+
+    public void addNode(AethumFluxNodeBlockEntity node) {
+        this.nodes.put(node.getPos(), node);
+        node.setNetwork(this);
+
+        this.wake();
+    }
+
+    public void removeNode(AethumFluxNodeBlockEntity node) {
+        if (this.nodes.remove(node.getPos()) == null) return;
+        node.setNetwork(null);
+
+        this.wake();
+    }
+
+    public void addVirtualNode(VirtualFluxNode node) {
+        this.virtualNodes.put(node.pos(), node);
+        node.setNetwork(this);
+    }
+
+    public void removeVirtualNode(VirtualFluxNode node) {
+        if (this.virtualNodes.remove(node.pos()) == null) return;
+        node.setNetwork(null);
+    }
+
+    /**
+     * Move all nodes of {@code other} into this network,
+     * leaving {@code other} empty
+     */
+    public void absorb(FluxNetwork other) {
+        for (var node : other.nodes.values()) {
+            this.addNode(node);
+        }
+
+        for (var node : other.virtualNodes.values()) {
+            this.addVirtualNode(node);
+        }
+
+        other.nodes.clear();
+        other.virtualNodes.clear();
+    }
+
+    /**
+     * Split this network into its connected components, walking through virtual nodes
+     * along the links they had when they were unloaded. The first component stays in
+     * this network, all others are moved into newly created networks
+     *
+     * @return The networks that were split off, empty if this network is still connected
+     */
+    public List<FluxNetwork> partition() {
+        int totalNodes = this.nodes.size() + this.virtualNodes.size();
+        if (totalNodes < 2) return List.of();
+
+        var unvisited = new HashSet<BlockPos>(totalNodes);
+        unvisited.addAll(this.nodes.keySet());
+        unvisited.addAll(this.virtualNodes.keySet());
+
+        var splitOff = new ArrayList<FluxNetwork>();
+
+        var queue = new ArrayDeque<BlockPos>();
+        boolean firstComponent = true;
+
+        while (!unvisited.isEmpty()) {
+            var start = unvisited.iterator().next();
+            unvisited.remove(start);
+            queue.add(start);
+
+            var component = new ArrayList<BlockPos>();
+            while (!queue.isEmpty()) {
+                var nodePos = queue.poll();
+                component.add(nodePos);
+
+                for (var neighborPos : this.linksOf(nodePos)) {
+                    if (unvisited.remove(neighborPos)) queue.add(neighborPos);
+                }
+            }
+
+            if (firstComponent) {
+                if (component.size() == totalNodes) return List.of();
+                firstComponent = false;
+                continue;
+            }
+
+            var network = new FluxNetwork();
+            for (var nodePos : component) {
+                var node = this.nodes.remove(nodePos);
+                if (node != null) {
+                    network.addNode(node);
+                } else {
+                    network.addVirtualNode(this.virtualNodes.remove(nodePos));
+                }
+            }
+
+            splitOff.add(network);
+        }
+
+        return splitOff;
+    }
+
+    private Collection<BlockPos> linksOf(BlockPos nodePos) {
+        var node = this.nodes.get(nodePos);
+        return node != null ? node.linkedMembers() : this.virtualNodes.get(nodePos).links();
+    }
+
+    // --------
+    // Dormancy
+    // --------
+
+    /**
+     * @return {@code true} if the last tick of this network neither
+     * transferred any flux nor changed the flux stored in its nodes
+     */
+    public boolean isDormant() {
+        return this.dormant;
+    }
+
+    /**
+     * Make this network tick again, called whenever something
+     * happens which could cause it to transfer flux
+     */
+    public void wake() {
+        this.dormant = false;
+        this.dormantTicks = 0;
+    }
+
+    /**
+     * Advance the dormancy timer of this network. Dormant networks are
+     * still solved every {@code recheckInterval} ticks, which catches any
+     * change that did not explicitly wake them up
+     *
+     * @return {@code true} if this network should be ticked
+     */
+    public boolean shouldTick(int recheckInterval) {
+        if (this.deferredTicks > 0) return true;
+        if (!this.dormant) return true;
+        if (++this.dormantTicks < recheckInterval) return false;
+
+        this.dormantTicks = 0;
+        return true;
+    }
+
+    /**
+     * Skip this network for the current tick because the tick budget ran out.
+     * The next tick transfers as much flux as the skipped ticks would have
+     */
+    public void defer() {
+        this.deferredTicks++;
+    }
+
+    /**
+     * @return {@code true} if this network was deferred at least once since it last ticked
+     */
+    public boolean isDeferred() {
+        return this.deferredTicks > 0;
+    }
+
+    /**
+     * @return How many ticks this network was deferred for since it last ticked
+     */
+    public int deferredTicks() {
+        return this.deferredTicks;
+    }
+
+    /**
+     * @return How many nanoseconds the last snapshot, solve and apply of this
+     * network took together, or {@code 0} if it never ticked
+     */
+    public long lastTickCost() {
+        return this.lastTickCost;
+    }
+
+    // --------
+    // Transfer
+    // --------
+
+    /**
+     * Tick this network on the calling thread, equivalent
+     * to {@link #snapshot()}, {@link #solve()} and {@link #apply()} in order
+     */
+    public void tick() {
+        this.snapshot();
+        this.solve();
+        this.apply();
+    }
+
+    /**
+     * Capture the state of all nodes and members of this network
+     * into the transfer arrays. Must be called on the server thread
+     */
+    public void snapshot() {
+        final long start = System.nanoTime();
+
+        this.elapsedTicks = Math.min(1 + this.deferredTicks, MAX_CATCH_UP_TICKS);
+        this.deferredTicks = 0;
+
+        long networkFlux = 0;
+        long networkCapacity = 0;
+
+        for (var node : this.nodes.values()) {
+            networkFlux += node.flux();
+            networkCapacity += node.fluxCapacity();
+        }
+
+        this.solver.reset(networkFlux, networkCapacity);
+        this.gatherMembers();
+
+        this.tickCost = System.nanoTime() - start;
+    }
+
+    /**
+     * Compute the transfer plan from the last snapshot. This only touches
+     * the arrays owned by this network and may thus run on any thread
+     */
+    public void solve() {
+        final long start = System.nanoTime();
+        this.solver.solve();
+        this.tickCost += System.nanoTime() - start;
+    }
+
+    /**
+     * Perform the transfers planned by the last call to {@link #solve()}
+     * and spread the resulting flux across all nodes. If neither changed anything,
+     * the network goes dormant. Must be called on the server thread
+     */
+    public void apply() {
+        final long start = System.nanoTime();
+        long networkFlux = this.applyTransfers(this.solver.networkFlux());
+        boolean active = this.transferred;
+
+        var fluxPerNode = (long) Math.ceil(networkFlux / (double) this.nodes.size());
+
+        for (var node : this.nodes.values()) {
+            long nodeFlux = Math.min(networkFlux, fluxPerNode);
+            if (node.flux() != nodeFlux) active = true;
+
+            node.updateFlux(nodeFlux);
+
+            networkFlux = Math.max(0, networkFlux - fluxPerNode);
+        }
+
+        Arrays.fill(this.members, 0, this.solver.memberCount(), null);
+        this.dormant = !active;
+
+        this.lastTickCost = this.tickCost + (System.nanoTime() - start);
+    }
+
+    /**
+     * @return The amount of members captured by the last snapshot
+     */
+    public int memberCount() {
+        return this.solver.memberCount();
+    }
+
+    /**
+     * Collect all members of this network into the transfer arrays, prioritized
+     * members first, and compute how much flux each of them could provide or accept
+     */
+    private void gatherMembers() {
+        for (var node : this.nodes.values()) {
+            for (var member : node.membersByLinkType(AethumLink.Type.PRIORITIZED)) {
+                this.addMember(node, member);
+            }
+
+            for (var member : node.virtualMembersByLinkType(AethumLink.Type.PRIORITIZED)) {
+                this.addMember(node, member);
+            }
+        }
+
+        this.solver.endPrioritizedMembers();
+
+        for (var node : this.nodes.values()) {
+            for (var member : node.membersByLinkType(AethumLink.Type.NORMAL)) {
+                this.addMember(node, member);
+            }
+
+            for (var member : node.virtualMembersByLinkType(AethumLink.Type.NORMAL)) {
+                this.addMember(node, member);
+            }
+        }
+    }
+
+    private void addMember(AethumNetworkNode node, AethumFluxContainer member) {
+        long potentialExtract = member.potentialExtract(node.maxInsert());
+        long potentialInsert = member.potentialInsert(node.maxExtract());
+
+        if (this.elapsedTicks > 1) {
+            potentialExtract = Math.min(potentialExtract * this.elapsedTicks, member.flux());
+            potentialInsert = Math.min(potentialInsert * this.elapsedTicks, member.fluxCapacity() - member.flux());
+        }
+
+        int idx = this.solver.addMember(potentialExtract, potentialInsert);
+        if (idx == this.members.length) this.members = Arrays.copyOf(this.members, Math.max(16, this.members.length * 2));
+
+        this.members[idx] = member;
+    }
+
+    /**
+     * Perform the planned transfers with one direct operation per member and
+     * elapsed tick, all extractions before all insertions. Only deferred networks
+     * need more than one operation, as their plan spans multiple ticks
+     *
+     * @return The amount of flux stored in the network after the transfer
+     */
+    private long applyTransfers(long networkFlux) {
+        this.transferred = false;
+
+        for (int i = 0; i < this.solver.memberCount(); i++) {
+            long toExtract = -this.solver.plannedTransfer(i);
+            if (toExtract <= 0) continue;
+
+            long extracted = 0;
+            for (int tick = 0; tick < this.elapsedTicks && extracted < toExtract; tick++) {
+                long step = this.members[i].extractDirect(toExtract - extracted);
+                if (step <= 0) break;
+
+                extracted += step;
+            }
+
+            if (extracted != 0) this.transferred = true;
+
+            networkFlux += extracted;
+        }
+
+        for (int i = 0; i < this.solver.memberCount(); i++) {
+            long planned = this.solver.plannedTransfer(i);
+            if (planned <= 0 || networkFlux <= 0) continue;
+
+            long toInsert = Math.min(planned, networkFlux);
+
+            long inserted = 0;
+            for (int tick = 0; tick < this.elapsedTicks && inserted < toInsert; tick++) {
+                long step = this.members[i].insertDirect(toInsert - inserted);
+                if (step <= 0) break;
+
+                inserted += step;
+            }
+
+            if (inserted != 0) this.transferred = true;
+
+            networkFlux -= inserted;
+        }
+
+        return networkFlux;
+    }
+}
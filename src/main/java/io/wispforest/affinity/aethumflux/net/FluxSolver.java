@@ -0,0 +1,159 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import java.util.Arrays;
+
+/**
+ * The world-independent part of a {@link FluxNetwork}. A solver is fed the
+ * total flux and capacity of a network's nodes as well as how much flux each
+ * member could provide or accept, and computes how much should actually be
+ * transferred to or from every member. It only operates on primitive arrays it
+ * owns and does not touch any game state, so it can run off-thread and be
+ * exercised without a world - see the {@code jmh} source set
+ */
+public class FluxSolver {
+
+    private long[] potentialExtract = new long[0];
+    private long[] potentialInsert = new long[0];
+    private long[] plannedTransfer = new long[0];
+    private int memberCount = 0;
+    private int priorityMemberCount = 0;
+
+    private long networkFlux = 0;
+    private long networkCapacity = 0;
+    private int fairnessCursor = 0;
+
+    /**
+     * Drop all members and start a new snapshot of a network
+     * which currently stores {@code networkFlux} out of {@code networkCapacity}
+     */
+    public void reset(long networkFlux, long networkCapacity) {
+        if (networkFlux < 0) networkFlux = 0;
+        if (networkFlux > networkCapacity) networkFlux = networkCapacity;
+
+        this.networkFlux = networkFlux;
+        this.networkCapacity = networkCapacity;
+        this.memberCount = 0;
+        this.priorityMemberCount = 0;
+    }
+
+    /**
+     * @return The index of the new member, which
+     * identifies its transfer after {@link #solve()}
+     */
+    public int addMember(long potentialExtract, long potentialInsert) {
+        if (this.memberCount == this.plannedTransfer.length) {
+            int newLength = Math.max(16, this.plannedTransfer.length * 2);
+
+            this.potentialExtract = Arrays.copyOf(this.potentialExtract, newLength);
+            this.potentialInsert = Arrays.copyOf(this.potentialInsert, newLength);
+            this.plannedTransfer = Arrays.copyOf(this.plannedTransfer, newLength);
+        }
+
+        int idx = this.memberCount++;
+
+        this.potentialExtract[idx] = potentialExtract;
+        this.potentialInsert[idx] = potentialInsert;
+        this.plannedTransfer[idx] = 0;
+
+        return idx;
+    }
+
+    /**
+     * Mark all members added so far as prioritized. Must
+     * be called at most once per snapshot, before any normal member is added
+     */
+    public void endPrioritizedMembers() {
+        this.priorityMemberCount = this.memberCount;
+    }
+
+    /**
+     * Compute the transfer plan from the current snapshot
+     */
+    public void solve() {
+        this.fairnessCursor = (this.fairnessCursor + 1) & Integer.MAX_VALUE;
+
+        long room = this.networkCapacity - this.networkFlux;
+        room -= this.distribute(this.potentialExtract, 0, this.priorityMemberCount, room, -1);
+        room -= this.distribute(this.potentialExtract, this.priorityMemberCount, this.memberCount, room, -1);
+
+        long available = this.networkCapacity - room;
+        available -= this.distribute(this.potentialInsert, 0, this.priorityMemberCount, available, 1);
+        this.distribute(this.potentialInsert, this.priorityMemberCount, this.memberCount, available, 1);
+    }
+
+    /**
+     * @return The amount of flux to transfer for the member at {@code idx}, positive
+     * if it should be inserted into the member and negative if it should be extracted
+     */
+    public long plannedTransfer(int idx) {
+        return this.plannedTransfer[idx];
+    }
+
+    public int memberCount() {
+        return this.memberCount;
+    }
+
+    public long networkFlux() {
+        return this.networkFlux;
+    }
+
+    /**
+     * Distribute {@code available} flux among the members in {@code [from, to)}. Every
+     * member first receives an equal share capped at its potential, whatever
+     * remains is then handed out to members which can still take more. The latter
+     * pass starts at an offset which advances every tick, so that no member
+     * is favored over the others in the long run
+     *
+     * @param potential The per-member potential to distribute against
+     * @param sign      {@code 1} if the distributed flux is inserted into the members,
+     *                  {@code -1} if it is extracted from them
+     * @return The total amount of flux that was distributed
+     */
+    private long distribute(long[] potential, int from, int to, long available, int sign) {
+        if (available <= 0 || from >= to) return 0;
+
+        long totalPotential = 0;
+        int activeMembers = 0;
+
+        for (int i = from; i < to; i++) {
+            if (potential[i] <= 0) continue;
+
+            totalPotential += potential[i];
+            activeMembers++;
+        }
+
+        if (activeMembers == 0) return 0;
+
+        if (totalPotential <= available) {
+            for (int i = from; i < to; i++) {
+                if (potential[i] > 0) this.plannedTransfer[i] += sign * potential[i];
+            }
+
+            return totalPotential;
+        }
+
+        long share = available / activeMembers;
+        long remaining = available;
+
+        for (int i = from; i < to; i++) {
+            long amount = Math.min(share, potential[i]);
+            if (amount <= 0) continue;
+
+            this.plannedTransfer[i] += sign * amount;
+            remaining -= amount;
+        }
+
+        int i = from + this.fairnessCursor % (to - from);
+        for (int visited = 0; visited < to - from && remaining > 0; visited++, i++) {
+            if (i == to) i = from;
+
+            long amount = Math.min(remaining, potential[i] - Math.min(share, potential[i]));
+            if (amount <= 0) continue;
+
+            this.plannedTransfer[i] += sign * amount;
+            remaining -= amount;
+        }
+
+        return available - remaining;
+    }
+}
@@ -0,0 +1,76 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import io.wispforest.affinity.aethumflux.storage.AethumFluxStorage;
+import io.wispforest.endec.Endec;
+import io.wispforest.endec.impl.StructEndecBuilder;
+import io.wispforest.owo.serialization.endec.MinecraftEndecs;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Stands in for a network member in an unloaded chunk. Networks may transfer
+ * flux to and from it like any other storage - once the actual member is
+ * loaded again, the net amount transferred is applied to it
+ */
+public class VirtualFluxMember extends AethumFluxStorage {
+
+    public static final Endec<VirtualFluxMember> ENDEC = StructEndecBuilder.of(
+            MinecraftEndecs.BLOCK_POS.fieldOf("pos", VirtualFluxMember::pos),
+            Endec.LONG.fieldOf("base_flux", virtualMember -> virtualMember.baseFlux),
+            Endec.LONG.fieldOf("flux", VirtualFluxMember::flux),
+            Endec.LONG.fieldOf("capacity", VirtualFluxMember::fluxCapacity),
+            Endec.LONG.fieldOf("max_insert", VirtualFluxMember::maxInsert),
+            Endec.LONG.fieldOf("max_extract", VirtualFluxMember::maxExtract),
+            Endec.LONG.optionalFieldOf("unloaded_at", VirtualFluxMember::unloadTime, 0L),
+            VirtualFluxMember::new
+    );
+
+    private final BlockPos pos;
+    private final long baseFlux;
+    private final long unloadTime;
+
+    public VirtualFluxMember(BlockPos pos, long baseFlux, long flux, long capacity, long maxInsert, long maxExtract, long unloadTime) {
+        super(capacity, maxInsert, maxExtract, () -> {});
+        this.pos = pos;
+        this.baseFlux = baseFlux;
+        this.unloadTime = unloadTime;
+
+        this.setFlux(flux);
+    }
+
+    /**
+     * Capture the current state of the given member
+     *
+     * @param pendingFlux Flux which was transferred to a previous virtual
+     *                    representation of this member but never applied
+     */
+    public static VirtualFluxMember of(BlockPos pos, AethumNetworkMember member, long pendingFlux, long unloadTime) {
+        return new VirtualFluxMember(
+                pos.toImmutable(),
+                member.flux(),
+                Math.max(0, Math.min(member.fluxCapacity(), member.flux() + pendingFlux)),
+                member.fluxCapacity(),
+                member.maxInsert(),
+                member.maxExtract(),
+                unloadTime
+        );
+    }
+
+    public BlockPos pos() {
+        return this.pos;
+    }
+
+    /**
+     * @return The world time at which the member was unloaded
+     */
+    public long unloadTime() {
+        return this.unloadTime;
+    }
+
+    /**
+     * @return The net amount of flux that was transferred to this
+     * member since it was created, negative if flux was extracted
+     */
+    public long pendingFlux() {
+        return this.flux() - this.baseFlux;
+    }
+}
@@ -0,0 +1,71 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import io.wispforest.affinity.blockentity.impl.AethumFluxNodeBlockEntity;
+import io.wispforest.endec.Endec;
+import io.wispforest.endec.impl.StructEndecBuilder;
+import io.wispforest.owo.serialization.endec.MinecraftEndecs;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Stands in for a flux node in an unloaded chunk. Virtual nodes don't
+ * transfer any flux, but they keep the network they were part of connected
+ * so that it doesn't have to be split and merged as chunks load and unload
+ */
+public class VirtualFluxNode {
+
+    public static final Endec<VirtualFluxNode> ENDEC = StructEndecBuilder.of(
+            MinecraftEndecs.BLOCK_POS.fieldOf("pos", VirtualFluxNode::pos),
+            MinecraftEndecs.BLOCK_POS.listOf().fieldOf("links", VirtualFluxNode::links),
+            Endec.LONG.optionalFieldOf("unloaded_at", VirtualFluxNode::unloadTime, 0L),
+            VirtualFluxNode::new
+    );
+
+    private final BlockPos pos;
+    private final List<BlockPos> links;
+    private final long unloadTime;
+
+    private @Nullable FluxNetwork network = null;
+
+    public VirtualFluxNode(BlockPos pos, List<BlockPos> links, long unloadTime) {
+        this.pos = pos;
+        this.links = links;
+        this.unloadTime = unloadTime;
+    }
+
+    public static VirtualFluxNode of(AethumFluxNodeBlockEntity node) {
+        return new VirtualFluxNode(node.getPos().toImmutable(), List.copyOf(node.linkedMembers()), node.getWorld().getTime());
+    }
+
+    public BlockPos pos() {
+        return this.pos;
+    }
+
+    /**
+     * @return The world time at which the node was unloaded
+     */
+    public long unloadTime() {
+        return this.unloadTime;
+    }
+
+    /**
+     * @return The positions of all members the node was linked to when it was unloaded
+     */
+    public List<BlockPos> links() {
+        return this.links;
+    }
+
+    /**
+     * @return The network this node was part of when it was unloaded, {@code null}
+     * if that network is unknown because the world was reloaded since
+     */
+    public @Nullable FluxNetwork network() {
+        return this.network;
+    }
+
+    public void setNetwork(@Nullable FluxNetwork network) {
+        this.network = network;
+    }
+}
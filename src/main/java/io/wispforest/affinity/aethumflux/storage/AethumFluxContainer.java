@@ -1,5 +1,6 @@
 package io.wispforest.affinity.aethumflux.storage;
 
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 
 public interface AethumFluxContainer {
@@ -32,6 +33,23 @@ public interface AethumFluxContainer {
      */
     long insert(long max, TransactionContext transaction);
 
+    /**
+     * Inserts up to {@code max} flux into this container immediately, outside
+     * of any transaction. Implementations may override this to skip the
+     * transaction machinery entirely, the default opens and commits one
+     *
+     * @param max The maximum amount of the insert
+     * @return The amount of flux that was inserted
+     */
+    default long insertDirect(long max) {
+        try (var transaction = Transaction.openOuter()) {
+            long inserted = this.insert(max, transaction);
+            transaction.commit();
+
+            return inserted;
+        }
+    }
+
     /**
      * @return {@code true} if this container supports flux insertion
      */
@@ -42,6 +60,18 @@ public interface AethumFluxContainer {
      */
     long maxInsert();
 
+    /**
+     * Computes how much flux a call to {@link #insert(long, TransactionContext)}
+     * would currently accept, without actually performing or simulating it
+     *
+     * @param max The maximum amount of the insert
+     * @return The amount of flux that would be inserted
+     */
+    default long potentialInsert(long max) {
+        if (!this.canInsert()) return 0;
+        return Math.max(0, Math.min(max, Math.min(this.maxInsert(), this.fluxCapacity() - this.flux())));
+    }
+
     // ----------
     // Extraction
     // ----------
@@ -55,6 +85,23 @@ public interface AethumFluxContainer {
      */
     long extract(long max, TransactionContext transaction);
 
+    /**
+     * Extracts up to {@code max} flux from this container immediately, outside
+     * of any transaction. Implementations may override this to skip the
+     * transaction machinery entirely, the default opens and commits one
+     *
+     * @param max The maximum amount of the extract
+     * @return The amount of flux that was extracted
+     */
+    default long extractDirect(long max) {
+        try (var transaction = Transaction.openOuter()) {
+            long extracted = this.extract(max, transaction);
+            transaction.commit();
+
+            return extracted;
+        }
+    }
+
     /**
      * @return {@code true} if this container supports flux extraction
      */
@@ -65,4 +112,16 @@ public interface AethumFluxContainer {
      */
     long maxExtract();
 
+    /**
+     * Computes how much flux a call to {@link #extract(long, TransactionContext)}
+     * would currently yield, without actually performing or simulating it
+     *
+     * @param max The maximum amount of the extract
+     * @return The amount of flux that would be extracted
+     */
+    default long potentialExtract(long max) {
+        if (!this.canExtract()) return 0;
+        return Math.max(0, Math.min(max, Math.min(this.maxExtract(), this.flux())));
+    }
+
 }
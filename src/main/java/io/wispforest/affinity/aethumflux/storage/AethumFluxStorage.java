@@ -62,6 +62,21 @@ public class AethumFluxStorage extends SnapshotParticipant<Long> implements Aeth
         return 0;
     }
 
+    @Override
+    public long insertDirect(long max) {
+        StoragePreconditions.notNegative(max);
+
+        long transfer = Math.min(maxInsert, Math.min(max, capacity - flux));
+
+        if (transfer > 0) {
+            this.flux += transfer;
+            this.commitCallback.onTransactionCommitted();
+            return transfer;
+        }
+
+        return 0;
+    }
+
     @Override
     public boolean canInsert() {
         return maxInsert > 0;
@@ -91,6 +106,21 @@ public class AethumFluxStorage extends SnapshotParticipant<Long> implements Aeth
         return 0;
     }
 
+    @Override
+    public long extractDirect(long max) {
+        StoragePreconditions.notNegative(max);
+
+        long transfer = Math.min(maxExtract, Math.min(max, flux));
+
+        if (transfer > 0) {
+            this.flux -= transfer;
+            this.commitCallback.onTransactionCommitted();
+            return transfer;
+        }
+
+        return 0;
+    }
+
     @Override
     public boolean canExtract() {
         return maxExtract > 0;
@@ -122,6 +152,10 @@ public class AethumFluxStorage extends SnapshotParticipant<Long> implements Aeth
 
     @FunctionalInterface
     public interface CommitCallback {
+        /**
+         * Called after the flux in this storage was changed by
+         * a committed transaction or by a direct insert or extract
+         */
         void onTransactionCommitted();
     }
 
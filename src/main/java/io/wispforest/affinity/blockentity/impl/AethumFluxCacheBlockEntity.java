@@ -3,9 +3,9 @@ package io.wispforest.affinity.blockentity.impl;
 import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.aethumflux.net.AethumLink;
 import io.wispforest.affinity.aethumflux.net.AethumNetworkMember;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
 import io.wispforest.affinity.aethumflux.net.MultiblockAethumNetworkMember;
 import io.wispforest.affinity.block.impl.AethumFluxCacheBlock;
-import io.wispforest.affinity.blockentity.template.AethumNetworkMemberBlockEntity;
 import io.wispforest.affinity.blockentity.template.InteractableBlockEntity;
 import io.wispforest.affinity.blockentity.template.ShardBearingAethumNetworkMemberBlockEntity;
 import io.wispforest.affinity.blockentity.template.TickedBlockEntity;
@@ -18,8 +18,6 @@ import io.wispforest.owo.ops.ItemOps;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
-import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
-import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -45,6 +43,8 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
 
     private static final Vec3d LINK_ATTACHMENT_POINT = new Vec3d(0, -.45, 0);
 
+    public static final long FLUX_PER_CACHE = 128000;
+
     @Environment(EnvType.CLIENT) public float renderFluxY;
     @Environment(EnvType.CLIENT) public boolean tickedOnce;
 
@@ -55,7 +55,7 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
     public AethumFluxCacheBlockEntity(BlockPos pos, BlockState state) {
         super(AffinityBlocks.Entities.AETHUM_FLUX_CACHE, pos, state);
 
-        this.fluxStorage.setFluxCapacity(128000);
+        this.fluxStorage.setFluxCapacity(FLUX_PER_CACHE);
         this.isPrimaryStorage = state.get(AethumFluxCacheBlock.PART).isBase;
     }
 
@@ -69,7 +69,7 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
         if (this.world == null) return;
         if (this.world.isClient) return;
 
-        this.childCache = null;
+        this.dissolveStack();
         final var part = state.get(AethumFluxCacheBlock.PART);
 
         if (this.isPrimaryStorage && !part.isBase && this.world.getBlockEntity(this.pos.add(0, -1, 0)) instanceof AethumFluxCacheBlockEntity cacheEntity) {
@@ -85,7 +85,15 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
         if (this.parentRef != null && parentRef.entity != this) parentRef.entity.updateChildCache();
     }
 
+    /**
+     * Collect all caches above this one into the stack and move
+     * their flux into this cache's storage, which then holds the flux
+     * of the entire stack. The caches above are left empty until the stack
+     * is dissolved again
+     */
     private void updateChildCache() {
+        this.dissolveStack();
+
         this.childCache = new ArrayList<>();
         this.parentRef = new ParentStorageReference(this, -1);
 
@@ -114,9 +122,40 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
             this.childCache.add(cacheEntity);
         }
 
+        long stackFlux = this.fluxStorage.flux();
+        for (var child : this.childCache) {
+            stackFlux += child.fluxStorage.flux();
+            child.updateFlux(0);
+        }
+
+        this.fluxStorage.setFluxCapacity(FLUX_PER_CACHE * (this.childCache.size() + 1));
+        this.updateFlux(Math.min(stackFlux, this.fluxStorage.fluxCapacity()));
+
         AffinityNetwork.CHANNEL.serverHandle(PlayerLookup.tracking(this)).send(new CacheDataUpdatePacket(this));
     }
 
+    /**
+     * Hand the flux pooled in this cache back to the individual
+     * caches of the stack, filling them from the bottom up
+     */
+    private void dissolveStack() {
+        if (this.childCache == null || this.world.isClient) return;
+
+        long stackFlux = this.fluxStorage.flux();
+        for (int i = 0; i < this.childCache.size(); i++) {
+            var child = this.childCache.get(i);
+            if (child.isRemoved()) continue;
+
+            child.parentRef = null;
+            child.updateFlux(blockPortion(stackFlux, i));
+        }
+
+        this.childCache = null;
+
+        this.fluxStorage.setFluxCapacity(FLUX_PER_CACHE);
+        this.updateFlux(Math.min(stackFlux, FLUX_PER_CACHE));
+    }
+
     private void moveChildLinksOntoSelf(AethumFluxCacheBlockEntity child) {
         if (!child.links.isEmpty()) {
             for (var link : child.linkedMembers()) {
@@ -128,6 +167,7 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
             }
 
             child.links.clear();
+            child.forgetLinkCaches();
             child.markDirty(true);
         }
     }
@@ -148,16 +188,19 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
 
         child.isPrimaryStorage = false;
         this.links.clear();
+        this.forgetLinkCaches();
     }
 
     @Override
     public void onBroken() {
+        if (this.parentRef != null) this.parentRef.entity.dissolveStack();
         this.tryMoveSelfLinksOntoChild();
         super.onBroken();
     }
 
     @Override
     public boolean beforeMangroveBasketCapture(World world, BlockPos pos, MutableObject<BlockState> state, BlockEntity blockEntity) {
+        if (this.parentRef != null) this.parentRef.entity.dissolveStack();
         this.tryMoveSelfLinksOntoChild();
         super.beforeMangroveBasketCapture(world, pos, state, blockEntity);
 
@@ -190,63 +233,18 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
         if (this.childCache == null) this.updateChildCache();
 
         var pushTargets = this.getLinksByType(AethumLink.Type.PUSH);
+        if (pushTargets.isEmpty() || this.tier.maxTransfer() <= 0) return;
 
         long totalFlux = this.fluxStorage.flux();
-        if (!this.childCache.isEmpty()) {
-            totalFlux += this.childCache.stream().mapToLong(value -> value.fluxStorage.flux()).sum();
-        }
-
-        if (!pushTargets.isEmpty() && this.tier.maxTransfer() > 0) {
-            final long maxTransferPerNode = Math.min(this.tier.maxTransfer(), (long) Math.ceil(totalFlux / (double) pushTargets.size()));
-
-            try (var transaction = Transaction.openOuter()) {
-                for (var pushTarget : pushTargets) {
-                    var targetNode = Affinity.AETHUM_NODE.find(world, pushTarget, null);
-                    if (targetNode == null) continue;
+        final long maxTransferPerNode = Math.min(this.tier.maxTransfer(), (long) Math.ceil(totalFlux / (double) pushTargets.size()));
 
-                    totalFlux -= targetNode.insert(Math.min(totalFlux, maxTransferPerNode), transaction);
-                }
+        for (var pushTarget : pushTargets) {
+            if (!(this.findLinkedMember(pushTarget) instanceof AethumNetworkNode targetNode)) continue;
 
-                transaction.commit();
-            }
+            totalFlux -= targetNode.insertDirect(Math.min(totalFlux, maxTransferPerNode));
         }
 
-        final long perCacheCap = this.fluxStorage.fluxCapacity();
-
-        long insertedFlux = Math.min(perCacheCap, totalFlux);
-        this.updateFlux(insertedFlux);
-        totalFlux -= insertedFlux;
-
-        if (!this.childCache.isEmpty()) {
-            for (var child : childCache) {
-                insertedFlux = Math.min(perCacheCap, totalFlux);
-
-                child.updateFlux(insertedFlux);
-
-                totalFlux -= insertedFlux;
-            }
-        }
-    }
-
-    @Override
-    public long insert(long max, TransactionContext transaction) {
-        if (this.childCache != null && this.fluxStorage.flux() >= this.fluxStorage.fluxCapacity()) {
-            long totalAvailable = max;
-
-            for (var child : childCache) {
-                if (child.fluxStorage.flux() >= child.fluxStorage.fluxCapacity()) continue;
-                max -= child.directInsert(max, transaction);
-                if (max <= 0) break;
-            }
-
-            return totalAvailable - max;
-        }
-
-        return this.directInsert(max, transaction);
-    }
-
-    private long directInsert(long max, TransactionContext transaction) {
-        return super.insert(max, transaction);
+        this.updateFlux(totalFlux);
     }
 
     @Override
@@ -282,19 +280,42 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
     @Override
     public long displayFlux() {
         if (this.parentRef == null) return super.displayFlux();
-        final var parent = parentRef.entity;
+        return this.parentRef.entity.flux();
+    }
 
-        if (parent.childCache == null || parent.childCache.isEmpty()) return super.displayFlux();
-        return parent.flux() + parent.childCache.stream().mapToLong(AethumNetworkMemberBlockEntity::flux).sum();
+    @Override
+    @Environment(EnvType.CLIENT)
+    public long interpolatedDisplayFlux() {
+        if (this.parentRef == null) return super.interpolatedDisplayFlux();
+        return this.parentRef.entity.interpolatedFlux();
     }
 
     @Override
     public long displayFluxCapacity() {
         if (this.parentRef == null) return super.displayFluxCapacity();
-        final var parent = parentRef.entity;
+        return this.parentRef.entity.fluxCapacity();
+    }
+
+    /**
+     * @return The amount of flux held by this block of the stack,
+     * derived from the flux pooled in the stack's primary storage
+     */
+    public long blockFlux() {
+        if (this.parentRef == null) return this.flux();
+        return blockPortion(this.parentRef.entity.flux(), this.parentRef.index);
+    }
 
-        if (parent.childCache == null || parent.childCache.isEmpty()) return super.displayFluxCapacity();
-        return parent.fluxCapacity() + parent.childCache.stream().mapToLong(AethumNetworkMemberBlockEntity::fluxCapacity).sum();
+    /**
+     * @return The smoothed equivalent of {@link #blockFlux()}
+     */
+    @Environment(EnvType.CLIENT)
+    public long interpolatedBlockFlux() {
+        if (this.parentRef == null) return this.interpolatedFlux();
+        return blockPortion(this.parentRef.entity.interpolatedFlux(), this.parentRef.index);
+    }
+
+    private static long blockPortion(long stackFlux, int index) {
+        return Math.max(0, Math.min(FLUX_PER_CACHE, stackFlux - (index + 1L) * FLUX_PER_CACHE));
     }
 
     @Environment(EnvType.CLIENT)
@@ -315,11 +336,14 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
 
             this.childCache.add(child);
         }
+
+        this.fluxStorage.setFluxCapacity(FLUX_PER_CACHE * (this.childCache.size() + 1));
     }
 
     @Override
     protected void updateTransferRateForTier() {
         this.fluxStorage.setMaxInsert(this.tier.maxTransfer());
+        this.notifyLinkedNodes();
     }
 
     @Override
@@ -422,12 +446,12 @@ public class AethumFluxCacheBlockEntity extends ShardBearingAethumNetworkMemberB
 
         public boolean previousIsNotFull() {
             final var previous = previous();
-            return previous != null && previous.flux() < previous.fluxCapacity();
+            return previous != null && previous.blockFlux() < FLUX_PER_CACHE;
         }
 
         public boolean nextIsEmpty() {
             final var next = next();
-            return next == null || next.flux() == 0;
+            return next == null || next.blockFlux() == 0;
         }
 
         @SuppressWarnings("ConstantConditions")
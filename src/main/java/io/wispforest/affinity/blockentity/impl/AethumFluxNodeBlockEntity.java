@@ -4,23 +4,26 @@ import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.aethumflux.net.AethumLink;
 import io.wispforest.affinity.aethumflux.net.AethumNetworkMember;
 import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
+import io.wispforest.affinity.aethumflux.net.FluxNetwork;
+import io.wispforest.affinity.aethumflux.storage.AethumFluxContainer;
 import io.wispforest.affinity.block.template.AbstractAethumFluxNodeBlock;
 import io.wispforest.affinity.blockentity.template.InquirableOutlineProvider;
 import io.wispforest.affinity.blockentity.template.InteractableBlockEntity;
 import io.wispforest.affinity.blockentity.template.ShardBearingAethumNetworkMemberBlockEntity;
 import io.wispforest.affinity.blockentity.template.TickedBlockEntity;
 import io.wispforest.affinity.client.render.CuboidRenderer;
+import io.wispforest.affinity.component.AffinityComponents;
 import io.wispforest.affinity.item.AttunedShardItem;
 import io.wispforest.affinity.misc.util.ListUtil;
 import io.wispforest.affinity.misc.util.MathUtil;
 import io.wispforest.affinity.misc.util.NbtUtil;
+import io.wispforest.affinity.network.FluxTopologyHandler;
 import io.wispforest.affinity.object.AffinityBlocks;
 import io.wispforest.affinity.object.attunedshards.AttunedShardTiers;
 import io.wispforest.owo.ops.ItemOps;
 import io.wispforest.owo.particles.ClientParticles;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
-import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
@@ -36,6 +39,7 @@ import net.minecraft.util.ItemScatterer;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.Nullable;
@@ -49,8 +53,9 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
     @Environment(EnvType.CLIENT) public float shardActivity;
     @Environment(EnvType.CLIENT) public double time;
 
-    private long lastTick = 0;
-    private final Map<AethumLink.Type, Collection<AethumNetworkMember>> cachedMembers = new HashMap<>();
+    private @Nullable FluxNetwork network = null;
+    private final Map<AethumLink.Type, List<AethumNetworkMember>> cachedMembers = new EnumMap<>(AethumLink.Type.class);
+    private final Map<AethumLink.Type, List<AethumFluxContainer>> cachedVirtualMembers = new EnumMap<>(AethumLink.Type.class);
 
     private final DefaultedList<ItemStack> outerShards = DefaultedList.ofSize(Affinity.config().maxFluxNodeShards(), ItemStack.EMPTY);
     private int outerShardCount = 0;
@@ -92,13 +97,13 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
         if (this.links.isEmpty() || !this.validForTransfer()) return;
         if (this.world.random.nextFloat() >= .5f) return;
 
-        var linkIter = this.links.keySet().iterator();
+        var linkIter = this.links.positions().iterator();
         int linkIndex = this.world.random.nextInt(this.links.size());
 
         for (int i = 0; i < linkIndex; i++) linkIter.next();
 
         var otherPos = linkIter.next();
-        var otherMember = Affinity.AETHUM_MEMBER.find(this.world, otherPos, null);
+        var otherMember = this.findLinkedMember(otherPos);
         if (otherMember == null) return;
 
         var thisPoint = Vec3d.ofCenter(this.pos).add(this.linkAttachmentPoint);
@@ -114,111 +119,53 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
 
     @Override
     public void tickServer() {
-        if (!this.validForTransfer()) return;
-        if (this.lastTick == world.getTime()) return;
-        this.lastTick = world.getTime();
+        var networks = this.world.getComponent(AffinityComponents.FLUX_NETWORKS);
 
-        final var network = this.visitNetwork();
-        final var nodes = new ArrayList<AethumFluxNodeBlockEntity>();
-
-        final var standardMembers = new ArrayList<TransferMember>();
-        int standardInsertMembers = 0;
-
-        final var priorityMembers = new ArrayList<TransferMember>();
-        int priorityInsertMembers = 0;
-
-        long networkFlux = 0;
-        long networkCapacity = 0;
-
-        for (var nodePos : network) {
-            var node = Affinity.AETHUM_NODE.find(world, nodePos, null);
-            if (!(node instanceof AethumFluxNodeBlockEntity nodeEntity)) continue;
-
-            nodes.add(nodeEntity);
-            networkFlux += node.flux();
-            networkCapacity += node.fluxCapacity();
-
-            for (var member : node.membersByLinkType(AethumLink.Type.NORMAL)) {
-                var transferMember = new TransferMember(node, member);
-                standardMembers.add(transferMember);
-
-                if (transferMember.potentialInsert > 0) standardInsertMembers++;
-            }
-
-            for (var member : node.membersByLinkType(AethumLink.Type.PRIORITIZED)) {
-                var transferMember = new TransferMember(node, member);
-                priorityMembers.add(transferMember);
-
-                if (transferMember.potentialInsert > 0) priorityInsertMembers++;
-            }
+        if (!this.validForTransfer()) {
+            networks.leave(this);
+            return;
         }
 
-        if (networkFlux < 0) networkFlux = 0;
-        if (networkFlux > networkCapacity) networkFlux = networkCapacity;
-
-        networkFlux = this.transfer(priorityMembers, networkFlux, networkCapacity, Long.MAX_VALUE, TransferFunction.EXTRACT_FROM_MEMBER);
-        networkFlux = this.transfer(standardMembers, networkFlux, networkCapacity, Long.MAX_VALUE, TransferFunction.EXTRACT_FROM_MEMBER);
-
-        if (networkFlux > 0 && priorityInsertMembers > 0) {
-            networkFlux = this.transfer(priorityMembers, networkFlux, networkCapacity, networkFlux / priorityInsertMembers, TransferFunction.INSERT_INTO_MEMBER);
-            networkFlux = this.transfer(priorityMembers, networkFlux, networkCapacity, Long.MAX_VALUE, TransferFunction.INSERT_INTO_MEMBER);
-        }
-
-        if (networkFlux > 0 && standardInsertMembers > 0) {
-            networkFlux = this.transfer(standardMembers, networkFlux, networkCapacity, networkFlux / standardInsertMembers, TransferFunction.INSERT_INTO_MEMBER);
-            networkFlux = this.transfer(standardMembers, networkFlux, networkCapacity, Long.MAX_VALUE, TransferFunction.INSERT_INTO_MEMBER);
-        }
-
-        var fluxPerNode = (long) Math.ceil(networkFlux / (double) nodes.size());
-
-        for (var node : nodes) {
-            node.updateFlux(Math.min(networkFlux, fluxPerNode));
-
-            networkFlux = Math.max(0, networkFlux - fluxPerNode);
-        }
+        if (this.network == null) networks.join(this);
     }
 
-    private long transfer(List<TransferMember> members, long networkFlux, long networkCapacity, long maxTransfer, TransferFunction function) {
-        Collections.shuffle(members);
-        members.sort(function.comparator());
-
-        try (var transaction = Transaction.openOuter()) {
-            for (var transferMember : members) {
-                networkFlux = function.transfer(transferMember, networkFlux, networkCapacity, maxTransfer, transaction);
-                if (networkFlux < 0 || networkFlux > networkCapacity) break;
-            }
+    @Override
+    public void markRemoved() {
+        super.markRemoved();
+        if (this.network == null) return;
 
-            transaction.commit();
+        var networks = this.world.getComponent(AffinityComponents.FLUX_NETWORKS);
+        if (this.wasBroken() || this.links.isEmpty()) {
+            networks.leave(this);
+        } else {
+            networks.unload(this);
         }
-
-        return networkFlux;
     }
 
-    private Collection<BlockPos> visitNetwork() {
-        if (!this.validForTransfer()) return Collections.emptyList();
-
-        var visitedNodes = new ArrayList<BlockPos>();
-        visitedNodes.add(this.pos);
-
-        var queue = new ArrayDeque<>(this.links.keySet());
+    public @Nullable FluxNetwork network() {
+        return this.network;
+    }
 
-        while (!queue.isEmpty()) {
-            var memberPos = queue.poll();
-            if (!(Affinity.AETHUM_NODE.find(this.world, memberPos, null) instanceof AethumFluxNodeBlockEntity node)) {
-                continue;
-            }
-            if (!node.validForTransfer()) continue;
+    public void setNetwork(@Nullable FluxNetwork network) {
+        this.network = network;
+    }
 
-            visitedNodes.add(memberPos);
-            node.lastTick = this.world.getTime();
+    /**
+     * Wake up the network of this node if it is dormant,
+     * so that it gets solved again in the next tick
+     */
+    public void wakeNetwork() {
+        if (this.network != null) this.network.wake();
+    }
 
-            for (var neighbor : node.linkedMembers()) {
-                if (visitedNodes.contains(neighbor) || queue.contains(neighbor)) continue;
-                queue.add(neighbor);
-            }
-        }
+    @Override
+    public void onLinkedMemberChanged(BlockPos pos) {
+        this.wakeNetwork();
+    }
 
-        return visitedNodes;
+    @Override
+    protected void notifyLinkedNodes() {
+        this.wakeNetwork();
     }
 
     // -------
@@ -231,22 +178,46 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
         return CuboidRenderer.Cuboid.symmetrical(distance, distance, distance);
     }
 
+    /**
+     * Resolve all non-node members linked via {@code type} through their link caches. The
+     * returned list is reused between calls and only valid until the next invocation
+     * <p>
+     * Members which are currently unloaded are never loaded by this, they are collected into
+     * {@link #virtualMembersByLinkType(AethumLink.Type)} instead, provided flux network catch-up is enabled
+     */
     public Collection<AethumNetworkMember> membersByLinkType(AethumLink.Type type) {
-        if (this.cachedMembers.containsKey(type)) return this.cachedMembers.get(type);
+        var members = this.cachedMembers.computeIfAbsent(type, $ -> new ArrayList<>());
+        var virtualMembers = this.cachedVirtualMembers.computeIfAbsent(type, $ -> new ArrayList<>());
+        members.clear();
+        virtualMembers.clear();
 
-        var cachedMembers = new ArrayList<AethumNetworkMember>(this.links.size());
-        for (var memberLink : links.keySet()) {
-            if (links.get(memberLink) != type) continue;
-            final var member = Affinity.AETHUM_MEMBER.find(world, memberLink, null);
+        var networks = this.world.getComponent(AffinityComponents.FLUX_NETWORKS);
+        boolean catchUp = Affinity.config().fluxNetworkVirtualMemberCatchUp();
 
-            if (member == null) continue;
-            if (member instanceof AethumNetworkNode) continue;
+        for (var linkPos : this.links.positionsByType(type)) {
+            if (!this.world.isChunkLoaded(ChunkSectionPos.getSectionCoord(linkPos.getX()), ChunkSectionPos.getSectionCoord(linkPos.getZ()))) {
+                var virtualMember = catchUp ? networks.virtualMember(linkPos) : null;
+                if (virtualMember != null) virtualMembers.add(virtualMember);
 
-            cachedMembers.add(member);
+                continue;
+            }
+
+            final var member = this.findLinkedMember(linkPos);
+            if (member == null || member instanceof AethumNetworkNode) continue;
+
+            members.add(member);
         }
 
-        this.cachedMembers.put(type, cachedMembers);
-        return cachedMembers;
+        return members;
+    }
+
+    /**
+     * @return The virtual stand-ins for all unloaded members linked via {@code type}, as
+     * collected by the last call to {@link #membersByLinkType(AethumLink.Type)}
+     */
+    public Collection<AethumFluxContainer> virtualMembersByLinkType(AethumLink.Type type) {
+        var virtualMembers = this.cachedVirtualMembers.get(type);
+        return virtualMembers != null ? virtualMembers : List.of();
     }
 
     @Override
@@ -269,9 +240,15 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
             if (!member.addLinkParent(this.pos, type)) return LinkResult.ALREADY_LINKED;
         }
 
-        this.links.put(pos.toImmutable(), type);
-        this.cachedMembers.clear();
+        this.links.put(pos, type);
         this.markDirty(true);
+        this.wakeNetwork();
+
+        if (member instanceof AethumFluxNodeBlockEntity node) {
+            this.world.getComponent(AffinityComponents.FLUX_NETWORKS).onNodesLinked(this, node);
+        }
+
+        FluxTopologyHandler.onLinked(this.world, this.pos, pos);
 
         return LinkResult.LINK_CREATED;
     }
@@ -291,9 +268,16 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
             member.onLinkTargetRemoved(this.pos);
         }
 
-        this.links.remove(pos.toImmutable());
-        this.cachedMembers.clear();
+        this.links.remove(pos);
+        this.forgetLinkCache(pos);
         this.markDirty(true);
+        this.wakeNetwork();
+
+        if (member instanceof AethumFluxNodeBlockEntity node) {
+            this.world.getComponent(AffinityComponents.FLUX_NETWORKS).onNodesUnlinked(this, node);
+        }
+
+        FluxTopologyHandler.onUnlinked(this.world, this.pos, pos);
 
         return LinkResult.LINK_DESTROYED;
     }
@@ -302,8 +286,9 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
     public LinkResult addNodeLink(BlockPos pos) {
         if (!this.isInRange(pos)) return LinkResult.OUT_OF_RANGE;
 
-        this.links.put(pos.toImmutable(), AethumLink.Type.NORMAL);
+        this.links.put(pos, AethumLink.Type.NORMAL);
         this.markDirty(true);
+        this.wakeNetwork();
 
         return LinkResult.LINK_CREATED;
     }
@@ -316,14 +301,16 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
 
     @Override
     public void removeNodeLink(BlockPos pos) {
-        this.links.remove(pos.toImmutable());
+        this.links.remove(pos);
+        this.forgetLinkCache(pos);
         this.markDirty(true);
+        this.wakeNetwork();
     }
 
     @Override
     public void onLinkTargetRemoved(BlockPos pos) {
         super.onLinkTargetRemoved(pos);
-        this.cachedMembers.clear();
+        this.wakeNetwork();
     }
 
     @Override
@@ -352,6 +339,30 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
         return super.extract(max, transaction);
     }
 
+    @Override
+    public long insertDirect(long max) {
+        if (!this.validForTransfer()) return 0;
+        return super.insertDirect(max);
+    }
+
+    @Override
+    public long extractDirect(long max) {
+        if (!this.validForTransfer()) return 0;
+        return super.extractDirect(max);
+    }
+
+    @Override
+    public long potentialInsert(long max) {
+        if (!this.validForTransfer()) return 0;
+        return super.potentialInsert(max);
+    }
+
+    @Override
+    public long potentialExtract(long max) {
+        if (!this.validForTransfer()) return 0;
+        return super.potentialExtract(max);
+    }
+
     // -------------
     // Serialization
     // -------------
@@ -363,7 +374,6 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
         NbtUtil.readItemStackList(nbt, "OuterShards", this.outerShards, registries);
 
         updatePropertyCache();
-        this.cachedMembers.clear();
     }
 
     @Override
@@ -456,7 +466,7 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
         this.updateTransferRateForTier();
 
         this.allLinksValid = true;
-        for (var link : this.links.keySet()) {
+        for (var link : this.links.positions()) {
             this.allLinksValid &= this.isInRange(link);
         }
     }
@@ -493,73 +503,4 @@ public class AethumFluxNodeBlockEntity extends ShardBearingAethumNetworkMemberBl
     public AethumLink.Type specialLinkType() {
         return AethumLink.Type.PRIORITIZED;
     }
-
-    // ------------------------
-    // Transfer utility classes
-    // ------------------------
-
-    private static class TransferMember {
-
-        private final AethumNetworkMember member;
-        private long potentialInsert;
-        private long potentialExtract;
-
-        public TransferMember(AethumNetworkNode node, AethumNetworkMember member) {
-            this.member = member;
-
-            try (var transaction = Transaction.openOuter()) {
-                this.potentialExtract = member.extract(node.maxInsert(), transaction);
-            }
-
-            try (var transaction = Transaction.openOuter()) {
-                this.potentialInsert = member.insert(node.maxExtract(), transaction);
-            }
-        }
-    }
-
-    private interface TransferFunction {
-
-        Comparator<TransferMember> INSERT_SORT = Comparator.comparingLong(value -> value.potentialInsert);
-        Comparator<TransferMember> EXTRACT_SORT = Comparator.comparingLong(value -> value.potentialExtract);
-
-        TransferFunction INSERT_INTO_MEMBER = new TransferFunction() {
-            @Override
-            public long transfer(TransferMember transferMember, long networkFlux, long networkCapacity, long maxTransfer, TransactionContext transactionContext) {
-                long inserted = transferMember.member.insert(
-                        Math.min(maxTransfer, Math.min(transferMember.potentialInsert, networkFlux)),
-                        transactionContext
-                );
-
-                transferMember.potentialInsert -= inserted;
-                return networkFlux - inserted;
-            }
-
-            @Override
-            public Comparator<TransferMember> comparator() {
-                return INSERT_SORT;
-            }
-        };
-
-        TransferFunction EXTRACT_FROM_MEMBER = new TransferFunction() {
-            @Override
-            public long transfer(TransferMember transferMember, long networkFlux, long networkCapacity, long maxTransfer, TransactionContext transactionContext) {
-                long extracted = transferMember.member.extract(
-                        Math.min(maxTransfer, Math.min(transferMember.potentialExtract, networkCapacity - networkFlux)),
-                        transactionContext
-                );
-
-                transferMember.potentialExtract -= extracted;
-                return networkFlux + extracted;
-            }
-
-            @Override
-            public Comparator<TransferMember> comparator() {
-                return EXTRACT_SORT;
-            }
-        };
-
-        long transfer(TransferMember transferMember, long networkFlux, long networkCapacity, long maxTransfer, TransactionContext transactionContext);
-
-        Comparator<TransferMember> comparator();
-    }
 }
@@ -1,11 +1,10 @@
 package io.wispforest.affinity.blockentity.impl;
 
-import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.aethumflux.net.AethumLink;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
 import io.wispforest.affinity.blockentity.template.AethumNetworkMemberBlockEntity;
 import io.wispforest.affinity.blockentity.template.TickedBlockEntity;
 import io.wispforest.affinity.object.AffinityBlocks;
-import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.block.BlockState;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
@@ -21,19 +20,13 @@ public class CreativeAethumFluxCacheBlockEntity extends AethumNetworkMemberBlock
     }
 
     @Override
-    @SuppressWarnings("UnstableApiUsage")
     public void tickServer() {
         var pushTargets = this.getLinksByType(AethumLink.Type.PUSH);
         if (!pushTargets.isEmpty()) {
-            try (var transaction = Transaction.openOuter()) {
-                for (var pushTarget : pushTargets) {
-                    var targetNode = Affinity.AETHUM_NODE.find(world, pushTarget, null);
-                    if (targetNode == null) continue;
+            for (var pushTarget : pushTargets) {
+                if (!(this.findLinkedMember(pushTarget) instanceof AethumNetworkNode targetNode)) continue;
 
-                    targetNode.insert(Long.MAX_VALUE, transaction);
-                }
-
-                transaction.commit();
+                targetNode.insertDirect(Long.MAX_VALUE);
             }
         }
     }
@@ -20,7 +20,6 @@ import io.wispforest.owo.serialization.RegistriesAttribute;
 import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
-import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.player.PlayerEntity;
@@ -110,15 +109,10 @@ public class EtherealAethumFluxNodeBlockEntity extends AethumNetworkMemberBlockE
             var attachedMember = Affinity.AETHUM_MEMBER.find(world, injectorPos.pos().offset(injector.getCachedState().get(EtherealAethumFluxInjectorBlock.FACING)), null);
             if (attachedMember == null) continue;
 
-            try (var transaction = Transaction.openOuter()) {
-                var inserted = attachedMember.insert(Math.min(transferPerInjector, this.flux()), transaction);
-
-                if (inserted > 0) {
-                    transaction.commit();
-                    this.updateFlux(this.flux() - inserted);
-
-                    injector.postInsert();
-                }
+            var inserted = attachedMember.insertDirect(Math.min(transferPerInjector, this.flux()));
+            if (inserted > 0) {
+                this.updateFlux(this.flux() - inserted);
+                injector.postInsert();
             }
 
             if (this.flux() == 0) return;
@@ -191,6 +185,8 @@ public class EtherealAethumFluxNodeBlockEntity extends AethumNetworkMemberBlockE
         this.owner = nbt.get(OWNER_KEY);
         this.global = nbt.get(GLOBAL_KEY);
         this.setShardStack(nbt.get(ctx, SHARD));
+
+        this.readSyncedFlux(nbt);
     }
 
     public void setShardStack(@NotNull ItemStack shardStack) {
@@ -4,9 +4,12 @@ import io.wispforest.affinity.block.impl.ItemTransferNodeBlock;
 import io.wispforest.affinity.blockentity.template.*;
 import io.wispforest.affinity.client.render.CuboidRenderer;
 import io.wispforest.affinity.client.render.InWorldTooltipProvider;
+import io.wispforest.affinity.misc.ItemTransferFilter;
 import io.wispforest.affinity.misc.callback.BeforeMangroveBasketCaptureCallback;
 import io.wispforest.affinity.misc.screenhandler.ItemTransferNodeScreenHandler;
 import io.wispforest.affinity.misc.util.NbtUtil;
+import io.wispforest.affinity.misc.util.TimingWheel;
+import io.wispforest.affinity.network.AffinityNetwork;
 import io.wispforest.affinity.object.AffinityBlocks;
 import io.wispforest.affinity.object.AffinityParticleSystems;
 import io.wispforest.endec.Endec;
@@ -17,6 +20,10 @@ import io.wispforest.owo.particles.ClientParticles;
 import io.wispforest.owo.serialization.RegistriesAttribute;
 import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import io.wispforest.owo.util.VectorRandomUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
@@ -27,7 +34,6 @@ import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.component.ComponentChanges;
-import net.minecraft.component.DataComponentTypes;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
@@ -67,7 +73,8 @@ import java.util.function.Predicate;
 public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements TickedBlockEntity, InWorldTooltipProvider, LinkableBlockEntity, InteractableBlockEntity, InquirableOutlineProvider, BeforeMangroveBasketCaptureCallback {
 
     public static final KeyedEndec<Set<BlockPos>> LINKS_KEY = MinecraftEndecs.BLOCK_POS.listOf().<Set<BlockPos>>xmap(HashSet::new, ArrayList::new).keyed("Links", HashSet::new);
-    public static final KeyedEndec<List<ItemEntry>> ENTRIES_KEY = ItemEntry.ENDEC.listOf().keyed("Entries", ArrayList::new);
+    public static final KeyedEndec<List<ItemEntry>> ENTRIES_KEY = ItemEntry.ENDEC.listOf().keyed("InFlight", ArrayList::new);
+    public static final KeyedEndec<List<ItemEntry>> LEGACY_ENTRIES_KEY = ItemEntry.LEGACY_ENDEC.listOf().keyed("Entries", ArrayList::new);
 
     public static final KeyedEndec<Mode> MODE_KEY = Mode.ENDEC.keyed("Mode", Mode.IDLE);
     public static final KeyedEndec<Integer> STACK_SIZE_KEY = Endec.INT.keyed("StackSize", 8);
@@ -77,8 +84,17 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
     public static final KeyedEndec<Boolean> IGNORE_DATA_KEY = Endec.BOOLEAN.keyed("IgnoreData", true);
     public static final KeyedEndec<Boolean> INVERT_FILTER_KEY = Endec.BOOLEAN.keyed("InvertFilter", false);
 
+    /**
+     * The amount of ticks an item is displayed on a node before
+     * it is inserted into the attached storage or sent on
+     */
+    private static final int DISPLAY_TICKS = 10;
+
     private Set<BlockPos> links = new HashSet<>();
-    private List<ItemEntry> entries = new ArrayList<>();
+
+    private final TimingWheel<ItemEntry> entries = new TimingWheel<>(256, entry -> entry.dueTick);
+    private final List<ItemEntry> unscheduledEntries = new ArrayList<>();
+    private final List<ItemEntry> previews = new ArrayList<>();
 
     private BlockApiCache<Storage<ItemVariant>, Direction> storageCache;
     private Direction facing;
@@ -91,10 +107,28 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
     public boolean invertFilter = false;
     @NotNull private ItemStack filterStack = ItemStack.EMPTY;
     @Nullable private TagKey<Item> filterTag = null;
+    @NotNull private ItemTransferFilter filter = ItemTransferFilter.ACCEPT_ALL;
 
     private long time = ThreadLocalRandom.current().nextLong(0, 10);
     private int startIndex = 0;
 
+    private @Nullable RoutingTable routes = null;
+
+    private static final ClassValue<Boolean> TRACKS_VERSION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getVersion").getDeclaringClass() != Storage.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final Object2IntOpenHashMap<ItemVariant> insertLedger = new Object2IntOpenHashMap<>();
+    private long insertLedgerTick = -1;
+    private long insertLedgerVersion = -1;
+
     public ItemTransferNodeBlockEntity(BlockPos pos, BlockState state) {
         super(AffinityBlocks.Entities.ITEM_TRANSFER_NODE, pos, state);
         this.facing = state.get(ItemTransferNodeBlock.FACING);
@@ -146,16 +180,19 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
 
     public void onBroken() {
         this.clearLinks();
-        for (var entry : this.entries) {
-            if (!entry.insert) continue;
-            this.dropItem(entry.item);
-        }
+        this.scheduleEntries();
+
+        this.entries.forEach(entry -> {
+            if (entry.insert) this.dropItem(entry.item);
+        });
+        this.entries.clear();
     }
 
     private boolean addLink(BlockPos pos) {
         if (!this.links.add(pos)) return false;
 
         this.startIndex = 0;
+        this.invalidateRoutes();
         this.markDirty();
 
         return true;
@@ -165,6 +202,7 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         if (!this.links.remove(pos)) return false;
 
         this.startIndex = 0;
+        this.invalidateRoutes();
         this.markDirty();
 
         return true;
@@ -178,9 +216,11 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
 
     @Override
     public void tickServer() {
-        if (this.entries.removeIf(entry -> {
-            if (++entry.age < 10) return false;
-            if (!entry.insert) return true;
+        this.scheduleEntries();
+
+        int entryCount = this.entries.size();
+        this.entries.advance(this.world.getTime(), entry -> {
+            if (!entry.insert) return;
 
             var item = this.storageTransaction((storage, transaction) -> {
                 int inserted = (int) storage.insert(ItemVariant.of(entry.item), entry.item.getCount(), transaction);
@@ -207,19 +247,24 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
                     this.dropItem(item);
                 }
             }
+        });
 
-            return true;
-        })) {
-            this.markDirty();
+        if (this.entries.size() != entryCount) this.world.markDirty(this.pos);
+
+        if (this.time++ % 10 == 0 && this.world.getReceivedRedstonePower(this.pos) == 0) {
+            this.sendItems();
         }
 
-        if (this.time++ % 10 != 0) return;
-        if (this.world.getReceivedRedstonePower(this.pos) > 0) return;
+        // Anything may touch the storage before this node ticks again
+        this.insertLedger.clear();
+    }
 
+    private void sendItems() {
         if (this.mode == Mode.SENDING) {
             if (!this.entries.isEmpty()) return;
 
-            var targets = this.linkedNodes(mode -> mode != Mode.SENDING);
+            var routes = this.routes();
+            var targets = routes.targets;
 
             if (targets.isEmpty()) return;
 
@@ -242,24 +287,20 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
 
             if (stack == null || stack.isEmpty()) return;
 
-            this.entries.add(new ItemEntry(this.pos, stack.copy(), 0, false));
-            this.markDirty();
+            this.scheduleEntry(new ItemEntry(this.pos, stack.copy(), this.world.getTime() + DISPLAY_TICKS, false));
 
-            if (!targets.isEmpty()) {
+            var destinations = routes.destinations(ItemVariant.of(stack));
+            if (destinations.length > 0) {
                 var insertVariant = ItemVariant.of(stack);
+                int countPerTarget = (int) Math.ceil(stack.getCount() / (double) destinations.length);
 
-                int validTargets = 0;
-                for (var node : targets) {
-                    if (node.acceptsItem(insertVariant)) validTargets++;
-                }
-
-                int countPerTarget = (int) Math.ceil(stack.getCount() / (double) validTargets);
+                int firstDestination = Arrays.binarySearch(destinations, this.startIndex);
+                if (firstDestination < 0) firstDestination = -firstDestination - 1;
 
-                for (int i = this.startIndex; i < targets.size() + startIndex; i++) {
+                for (int i = firstDestination; i < destinations.length + firstDestination; i++) {
                     if (stack.isEmpty()) break;
 
-                    var node = targets.get(i % targets.size());
-                    if (!node.acceptsItem(insertVariant)) continue;
+                    var node = targets.get(destinations[i % destinations.length]);
 
                     int insertCount = Math.min(node.maxInsertCount(insertVariant, null), Math.min(countPerTarget, stack.getCount()));
                     if (insertCount == 0) continue;
@@ -278,13 +319,14 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
                 stack.copy(), particleOrigin(targetNode), 10, transferTime
         ));
 
-        targetNode.insertItem(this, stack.copyWithCount(insertCount), transferTime + 10);
+        targetNode.insertItem(this, stack.copyWithCount(insertCount), transferTime + DISPLAY_TICKS);
         stack.decrement(insertCount);
     }
 
     @Override
     public void tickClient() {
-        this.entries.forEach(entry -> entry.age++);
+        long time = this.world.getTime();
+        this.previews.removeIf(preview -> preview.dueTick <= time);
 
         if (this.world.getReceivedRedstonePower(this.pos) > 0 && this.world.random.nextFloat() < .075f) {
             var pos = Vec3d.ofCenter(this.pos).add(
@@ -300,14 +342,46 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
     }
 
     private void insertItem(ItemTransferNodeBlockEntity origin, ItemStack item, int delay) {
-        this.entries.add(new ItemEntry(origin.pos, item, -delay, true));
-        this.markDirty();
+        this.consumeInsertCapacity(ItemVariant.of(item), item.getCount());
+        this.scheduleEntry(new ItemEntry(origin.pos, item, this.world.getTime() + delay + DISPLAY_TICKS, true));
+    }
+
+    /**
+     * Schedule the given entry on this node's timing wheel and tell all
+     * clients tracking this node when to display it, instead of syncing
+     * the entire node
+     */
+    private void scheduleEntry(ItemEntry entry) {
+        this.entries.schedule(entry);
+        this.world.markDirty(this.pos);
+
+        int delay = (int) (entry.dueTick - this.world.getTime()) - DISPLAY_TICKS;
+        AffinityNetwork.server(this).send(new ItemPreviewPacket(this.pos, entry.item.copy(), Math.max(0, delay)));
+    }
+
+    /**
+     * Move entries read from NBT onto the timing wheel, which is only
+     * possible once the current world time is known
+     */
+    private void scheduleEntries() {
+        if (this.unscheduledEntries.isEmpty()) return;
+
+        for (var entry : this.unscheduledEntries) {
+            entry.dueTick = this.world.getTime() + entry.remainingTicks;
+            this.entries.schedule(entry);
+        }
+
+        this.unscheduledEntries.clear();
     }
 
     private @Nullable ItemStack storageTransaction(BiFunction<Storage<ItemVariant>, Transaction, @Nullable ItemStack> action) {
         var storage = this.attachedStorage();
         if (storage == null) return null;
 
+        // This node is about to insert into or extract from the storage,
+        // which invalidates whatever the ledger knows about it
+        this.insertLedger.clear();
+
         try (var transaction = Transaction.openOuter()) {
             return action.apply(storage, transaction);
         }
@@ -338,51 +412,98 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         }
     }
 
+    /**
+     * @return How many items of the given variant the attached storage could still accept
+     * once all pending entries are inserted. Results are kept in a ledger which is reduced
+     * as items are scheduled for insertion, and dropped when this node touches the storage
+     * or finishes its tick
+     * <p>
+     * Changes made to the storage by anyone else are only noticed within the same tick
+     * if the storage implements {@link Storage#getVersion()} itself. Fabric's default
+     * returns a new version on every call, which would drop the ledger on every query,
+     * so the version of such storages is ignored
+     */
     private int maxInsertCount(ItemVariant variant, @Nullable TransactionContext outerTransaction) {
         var storage = this.attachedStorage();
         if (storage == null) return Integer.MAX_VALUE;
 
+        long time = this.world.getTime();
+        long version = TRACKS_VERSION.get(storage.getClass()) ? storage.getVersion() : -1;
+
+        if (this.insertLedgerTick != time || this.insertLedgerVersion != version) {
+            this.insertLedger.clear();
+            this.insertLedgerTick = time;
+            this.insertLedgerVersion = version;
+        }
+
+        if (this.insertLedger.containsKey(variant)) return this.insertLedger.getInt(variant);
+
+        int maxInsert;
         try (var transaction = Transaction.openNested(outerTransaction)) {
-            for (var entry : this.entries) {
-                if (!entry.insert) continue;
-                storage.insert(entry.variant(), entry.item.getCount(), transaction);
-            }
+            this.entries.forEach(entry -> {
+                if (entry.insert) storage.insert(entry.variant(), entry.item.getCount(), transaction);
+            });
 
-            return (int) storage.insert(variant, Integer.MAX_VALUE, transaction);
+            maxInsert = (int) storage.insert(variant, Integer.MAX_VALUE, transaction);
         }
+
+        this.insertLedger.put(variant, maxInsert);
+        return maxInsert;
+    }
+
+    /**
+     * Deduct an insertion of {@code count} items of {@code variant} which was just scheduled
+     * from the insert ledger. Other variants may share the space that was taken, so their
+     * entries are dropped and simulated again if needed
+     */
+    private void consumeInsertCapacity(ItemVariant variant, int count) {
+        if (this.insertLedger.isEmpty()) return;
+
+        int remaining = this.insertLedger.containsKey(variant) ? this.insertLedger.getInt(variant) : -1;
+        this.insertLedger.clear();
+
+        if (remaining >= 0) this.insertLedger.put(variant, Math.max(0, remaining - count));
     }
 
     private boolean acceptsItem(ItemVariant variant) {
-        if (this.filterStack.isEmpty()) return true;
-        return this.invertFilter != this.testFilter(variant);
+        if (this.filter.isOutdated()) this.compileFilter();
+        return this.filter.test(variant);
     }
 
-    private boolean testFilter(ItemVariant variant) {
-        if (this.filterTag != null) {
-            if (!variant.getItem().getRegistryEntry().isIn(this.filterTag)) return false;
-        } else {
-            if (this.filterStack.getItem() != variant.getItem()) return false;
-        }
+    private void compileFilter() {
+        this.filter = ItemTransferFilter.compile(this.filterStack, this.filterTag, this.ignoreDamage, this.ignoreData, this.invertFilter);
+    }
 
-        if (this.ignoreData) return true;
+    /**
+     * @return The routing table of this node, rebuilt
+     * if it was invalidated since the last send
+     */
+    private RoutingTable routes() {
+        if (this.routes == null || !this.routes.isValid(this.world.getTime())) {
+            this.routes = RoutingTable.build(this);
+        }
 
-        var standard = this.filterStack.getComponentChanges();
-        if (this.ignoreDamage) standard.withRemovedIf(type -> type == DataComponentTypes.DAMAGE);
+        return this.routes;
+    }
 
-        return variant.componentsMatch(standard);
+    private void invalidateRoutes() {
+        this.routes = null;
     }
 
-    private List<ItemTransferNodeBlockEntity> linkedNodes(Predicate<Mode> modePredicate) {
-        var nodes = new ArrayList<ItemTransferNodeBlockEntity>();
+    /**
+     * Drop the routing tables of this node and all nodes linked to it, called
+     * whenever something changes which decides where this node may receive items
+     */
+    private void invalidateLinkedRoutes() {
+        this.invalidateRoutes();
+        if (this.world == null) return;
 
         for (var link : this.links) {
+            if (!this.world.isChunkLoaded(link)) continue;
             if (!(this.world.getBlockEntity(link) instanceof ItemTransferNodeBlockEntity node)) continue;
-            if (modePredicate.test(node.mode)) {
-                nodes.add(node);
-            }
-        }
 
-        return nodes;
+            node.invalidateRoutes();
+        }
     }
 
     public Set<BlockPos> links() {
@@ -419,6 +540,7 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
             });
         } else {
             this.mode = this.mode.next();
+            this.invalidateLinkedRoutes();
             this.markDirty();
         }
 
@@ -430,7 +552,17 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         var ctx = SerializationContext.attributes(RegistriesAttribute.of((DynamicRegistryManager) registries));
 
         nbt.put(ctx, LINKS_KEY, this.links);
-        nbt.put(ctx, ENTRIES_KEY, this.entries);
+
+        long time = this.world != null ? this.world.getTime() : 0;
+        var entries = new ArrayList<ItemEntry>(this.entries.size() + this.unscheduledEntries.size());
+
+        this.entries.forEach(entry -> {
+            entry.remainingTicks = (int) Math.max(0, entry.dueTick - time);
+            entries.add(entry);
+        });
+        entries.addAll(this.unscheduledEntries);
+
+        nbt.put(ctx, ENTRIES_KEY, entries);
 
         nbt.put(ctx, MODE_KEY, this.mode);
         nbt.put(ctx, STACK_SIZE_KEY, this.stackSize);
@@ -446,18 +578,29 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         var ctx = SerializationContext.attributes(RegistriesAttribute.of((DynamicRegistryManager) registries));
 
         this.links = nbt.get(ctx, LINKS_KEY);
-        this.entries = nbt.get(ctx, ENTRIES_KEY);
+        this.invalidateRoutes();
 
         this.entries.clear();
-        this.entries.addAll(nbt.get(ctx, ENTRIES_KEY));
+        this.unscheduledEntries.clear();
+        this.unscheduledEntries.addAll(nbt.has(ENTRIES_KEY) ? nbt.get(ctx, ENTRIES_KEY) : nbt.get(ctx, LEGACY_ENTRIES_KEY));
 
         this.mode = nbt.get(ctx, MODE_KEY);
         this.stackSize = nbt.get(ctx, STACK_SIZE_KEY);
-        this.setFilterStack(nbt.get(ctx, FILTER_STACK_KEY));
+        this.applyFilterStack(nbt.get(ctx, FILTER_STACK_KEY));
 
         this.ignoreDamage = nbt.get(ctx, IGNORE_DAMAGE_KEY);
         this.ignoreData = nbt.get(ctx, IGNORE_DATA_KEY);
         this.invertFilter = nbt.get(ctx, INVERT_FILTER_KEY);
+
+        this.compileFilter();
+    }
+
+    @Override
+    public NbtCompound toInitialChunkDataNbt(RegistryWrapper.WrapperLookup registries) {
+        var nbt = super.toInitialChunkDataNbt(registries);
+        nbt.remove("InFlight");
+
+        return nbt;
     }
 
     @Override
@@ -471,27 +614,44 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         return CuboidRenderer.Cuboid.symmetrical(15, 15, 15);
     }
 
+    @Environment(EnvType.CLIENT)
     public ItemStack previewItem() {
-        return this.entries.isEmpty() || this.entries.get(0).age < 0
-                ? ItemStack.EMPTY
-                : this.entries.get(0).item;
+        long time = this.world.getTime();
+        for (var preview : this.previews) {
+            if (preview.dueTick - DISPLAY_TICKS <= time) return preview.item;
+        }
+
+        return ItemStack.EMPTY;
     }
 
     public List<ItemStack> displayItems() {
         var list = new ArrayList<ItemStack>(this.entries.size());
-        for (var entry : this.entries) {
-            if (!entry.insert) continue;
-            list.add(entry.item);
-        }
+        this.entries.forEach(entry -> {
+            if (entry.insert) list.add(entry.item);
+        });
 
         return list;
     }
 
+    public static void initNetwork() {
+        AffinityNetwork.CHANNEL.registerClientbound(ItemPreviewPacket.class, ItemPreviewPacket.ENDEC, (message, access) -> {
+            if (!(access.player().getWorld().getBlockEntity(message.nodePos) instanceof ItemTransferNodeBlockEntity node)) return;
+            node.previews.add(new ItemEntry(message.nodePos, message.item, node.world.getTime() + message.delay + DISPLAY_TICKS, true));
+        });
+    }
+
     public @NotNull ItemStack filterStack() {
         return this.filterStack;
     }
 
     public void setFilterStack(ItemStack filterStack) {
+        this.applyFilterStack(filterStack);
+
+        this.invalidateLinkedRoutes();
+        this.markDirty();
+    }
+
+    private void applyFilterStack(ItemStack filterStack) {
         this.filterStack = filterStack.copyWithCount(1);
 
         var nameString = this.filterStack.getName().getString();
@@ -504,6 +664,16 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
             this.filterTag = null;
         }
 
+        this.compileFilter();
+    }
+
+    public void setFilterConfiguration(boolean ignoreDamage, boolean ignoreData, boolean invertFilter) {
+        this.ignoreDamage = ignoreDamage;
+        this.ignoreData = ignoreData;
+        this.invertFilter = invertFilter;
+        this.compileFilter();
+
+        this.invalidateLinkedRoutes();
         this.markDirty();
     }
 
@@ -515,36 +685,151 @@ public class ItemTransferNodeBlockEntity extends SyncedBlockEntity implements Ti
         return Vec3d.ofCenter(node.pos).add(node.facing.getOffsetX() * .1, node.facing.getOffsetY() * .1, node.facing.getOffsetZ() * .1);
     }
 
+    /**
+     * An item in flight towards a node, or the display of an item
+     * that was just extracted on its origin node if {@code insert} is
+     * {@code false}. Entries are due {@link #DISPLAY_TICKS} after they
+     * arrive, at which point they are inserted into the attached storage
+     */
     public static final class ItemEntry {
 
         public static final Endec<ItemEntry> ENDEC = StructEndecBuilder.of(
+                Endec.LONG.fieldOf("Origin", entry -> entry.originNode.asLong()),
+                MinecraftEndecs.ITEM_STACK.fieldOf("Item", entry -> entry.item),
+                Endec.INT.fieldOf("Remaining", entry -> entry.remainingTicks),
+                Endec.BOOLEAN.fieldOf("Insert", entry -> entry.insert),
+                (origin, item, remaining, insert) -> ItemEntry.unscheduled(BlockPos.fromLong(origin), item, remaining, insert)
+        );
+
+        /**
+         * The previous format, which stored how many ticks ago each entry
+         * was created. Entries were due once their age reached {@link #DISPLAY_TICKS}
+         */
+        public static final Endec<ItemEntry> LEGACY_ENDEC = StructEndecBuilder.of(
                 MinecraftEndecs.BLOCK_POS.fieldOf("OriginNode", entry -> entry.originNode),
                 MinecraftEndecs.ITEM_STACK.fieldOf("Item", entry -> entry.item),
-                Endec.INT.fieldOf("Age", entry -> entry.age),
+                Endec.INT.fieldOf("Age", entry -> DISPLAY_TICKS - entry.remainingTicks),
                 Endec.BOOLEAN.fieldOf("Insert", entry -> entry.insert),
-                ItemEntry::new
+                (origin, item, age, insert) -> ItemEntry.unscheduled(origin, item, Math.max(0, DISPLAY_TICKS - age), insert)
         );
 
         private final BlockPos originNode;
         private final ItemStack item;
         private final boolean insert;
 
-        private int age;
+        private long dueTick;
+        private int remainingTicks = 0;
         private @Nullable ItemVariant variant = null;
 
-        public ItemEntry(BlockPos originNode, ItemStack item, int age, boolean insert) {
+        public ItemEntry(BlockPos originNode, ItemStack item, long dueTick, boolean insert) {
             this.originNode = originNode;
             this.item = item;
-            this.age = age;
+            this.dueTick = dueTick;
             this.insert = insert;
         }
 
+        private static ItemEntry unscheduled(BlockPos originNode, ItemStack item, int remainingTicks, boolean insert) {
+            var entry = new ItemEntry(originNode, item, 0, insert);
+            entry.remainingTicks = remainingTicks;
+
+            return entry;
+        }
+
         public ItemVariant variant() {
             if (this.variant == null) this.variant = ItemVariant.of(this.item);
             return this.variant;
         }
     }
 
+    /**
+     * Tells clients that {@code item} arrives at the given node
+     * in {@code delay} ticks, after which it is displayed for {@link #DISPLAY_TICKS}
+     */
+    public record ItemPreviewPacket(BlockPos nodePos, ItemStack item, int delay) {
+        public static final Endec<ItemPreviewPacket> ENDEC = StructEndecBuilder.of(
+                MinecraftEndecs.BLOCK_POS.fieldOf("node_pos", ItemPreviewPacket::nodePos),
+                MinecraftEndecs.ITEM_STACK.fieldOf("item", ItemPreviewPacket::item),
+                Endec.INT.fieldOf("delay", ItemPreviewPacket::delay),
+                ItemPreviewPacket::new
+        );
+    }
+
+    /**
+     * The nodes a sending node can deliver to, along with a cache of which of
+     * them accept a given item. Tables are dropped whenever a link, filter or mode
+     * involved in them changes. If some linked nodes were not loaded when the table
+     * was built, it is additionally rebuilt every {@link #PARTIAL_TABLE_LIFETIME} ticks
+     * so that they are picked up once they load
+     */
+    private static final class RoutingTable {
+
+        private static final int PARTIAL_TABLE_LIFETIME = 20;
+        private static final int MAX_CACHED_VARIANTS = 256;
+
+        private final List<ItemTransferNodeBlockEntity> targets;
+        private final Map<ItemVariant, int[]> destinations = new HashMap<>();
+
+        private final boolean partial;
+        private final long buildTime;
+        private final int tagGeneration = ItemTransferFilter.tagGeneration();
+
+        private RoutingTable(List<ItemTransferNodeBlockEntity> targets, boolean partial, long buildTime) {
+            this.targets = targets;
+            this.partial = partial;
+            this.buildTime = buildTime;
+        }
+
+        private static RoutingTable build(ItemTransferNodeBlockEntity node) {
+            var targets = new ArrayList<ItemTransferNodeBlockEntity>(node.links.size());
+            boolean partial = false;
+
+            for (var link : node.links) {
+                if (!node.world.isChunkLoaded(link) || !(node.world.getBlockEntity(link) instanceof ItemTransferNodeBlockEntity target)) {
+                    partial = true;
+                    continue;
+                }
+
+                if (target.mode != Mode.SENDING) targets.add(target);
+            }
+
+            return new RoutingTable(targets, partial, node.world.getTime());
+        }
+
+        private boolean isValid(long time) {
+            if (this.partial && time - this.buildTime >= PARTIAL_TABLE_LIFETIME) return false;
+
+            // Cached destinations may stem from tag filters which no longer hold
+            if (this.tagGeneration != ItemTransferFilter.tagGeneration()) return false;
+
+            for (var target : this.targets) {
+                if (target.isRemoved()) return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * @return The ascending indices into {@link #targets} of all
+         * targets whose filter accepts the given variant
+         */
+        private int[] destinations(ItemVariant variant) {
+            var destinations = this.destinations.get(variant);
+            if (destinations != null) return destinations;
+
+            if (this.destinations.size() >= MAX_CACHED_VARIANTS) this.destinations.clear();
+
+            var accepting = new IntArrayList();
+            for (int i = 0; i < this.targets.size(); i++) {
+                if (this.targets.get(i).acceptsItem(variant)) accepting.add(i);
+            }
+
+            destinations = accepting.toIntArray();
+            this.destinations.put(variant, destinations);
+
+            return destinations;
+        }
+    }
+
     public enum Mode {
         SENDING,
         IDLE;
@@ -2,18 +2,22 @@ package io.wispforest.affinity.blockentity.template;
 
 import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.aethumflux.net.AethumLink;
+import io.wispforest.affinity.aethumflux.net.AethumLinkTable;
 import io.wispforest.affinity.aethumflux.net.AethumNetworkMember;
 import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
 import io.wispforest.affinity.aethumflux.storage.AethumFluxStorage;
+import io.wispforest.affinity.client.misc.FluxInterpolator;
 import io.wispforest.affinity.client.render.InWorldTooltipProvider;
+import io.wispforest.affinity.component.AffinityComponents;
 import io.wispforest.affinity.misc.callback.BeforeMangroveBasketCaptureCallback;
 import io.wispforest.affinity.misc.util.NbtUtil;
 import io.wispforest.affinity.network.FluxSyncHandler;
+import io.wispforest.affinity.network.FluxTopologyHandler;
 import io.wispforest.endec.Endec;
 import io.wispforest.endec.impl.KeyedEndec;
-import io.wispforest.owo.ui.util.Delta;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
@@ -21,11 +25,15 @@ import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
 import org.apache.commons.lang3.mutable.MutableObject;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -34,21 +42,43 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
     public static final KeyedEndec<AethumLink.Element> LINK_ELEMENT_KEY = Endec.forEnum(AethumLink.Element.class).keyed("Element", (AethumLink.Element) null);
     public static final KeyedEndec<AethumLink.Type> LINK_TYPE_KEY = Endec.forEnum(AethumLink.Type.class).keyed("Type", AethumLink.Type.NORMAL);
 
+    private static final int LINKED_NODE_RETRY_INTERVAL = 20;
+
     @Environment(EnvType.CLIENT) private long tooltipFlux;
+    @Environment(EnvType.CLIENT) private FluxInterpolator fluxInterpolator;
+    private long syncedFlux;
+
+    protected final AethumLinkTable links = new AethumLinkTable();
+    private final Map<BlockPos, BlockApiCache<AethumNetworkMember, Void>> linkCaches = new HashMap<>();
 
-    protected final Map<BlockPos, AethumLink.Type> links = new HashMap<>();
+    private final List<AethumNetworkNode> linkedNodes = new ArrayList<>();
+    private @Nullable Set<BlockPos> linkedNodesSource = null;
+    private boolean linkedNodesIncomplete = false;
+    private long linkedNodesResolveTime = 0;
     protected final AethumFluxStorage fluxStorage = new AethumFluxStorage(this);
+    private boolean broken = false;
 
     public AethumNetworkMemberBlockEntity(BlockEntityType<? extends AethumNetworkMemberBlockEntity> type, BlockPos pos, BlockState state) {
         super(type, pos, state);
     }
 
     public void onBroken() {
+        this.broken = true;
         this.clearLinks();
+
+        if (!this.world.isClient) this.world.getComponent(AffinityComponents.FLUX_NETWORKS).forgetMember(this.pos);
+    }
+
+    /**
+     * @return {@code true} if this member was removed because it
+     * was broken, as opposed to its chunk being unloaded
+     */
+    public boolean wasBroken() {
+        return this.broken;
     }
 
     protected void clearLinks() {
-        for (var memberPos : this.links.keySet()) {
+        for (var memberPos : this.links.positions()) {
             var member = Affinity.AETHUM_MEMBER.find(world, memberPos, null);
             if (member == null) continue;
 
@@ -56,6 +86,7 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
         }
 
         this.links.clear();
+        this.linkCaches.clear();
     }
 
     @Override
@@ -125,7 +156,9 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
     @Override
     public void readNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup registries) {
         NbtUtil.readLinks(nbt, "LinkedMembers", links);
+        this.linkCaches.clear();
         this.fluxStorage.readNbt(nbt);
+        this.readSyncedFlux(nbt);
     }
 
     @Override
@@ -134,52 +167,170 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
         this.fluxStorage.writeNbt(nbt);
     }
 
+    @Override
+    public NbtCompound toInitialChunkDataNbt(RegistryWrapper.WrapperLookup registries) {
+        var nbt = super.toInitialChunkDataNbt(registries);
+        nbt.putLong("SyncedFlux", FluxSyncHandler.syncBaseline(this));
+        return nbt;
+    }
+
+    /**
+     * Read the flux sync baseline sent along with the initial chunk
+     * data, against which subsequent flux updates are applied
+     */
+    protected void readSyncedFlux(NbtCompound nbt) {
+        this.syncedFlux = nbt.contains("SyncedFlux", NbtElement.LONG_TYPE)
+                ? nbt.getLong("SyncedFlux")
+                : this.fluxStorage.flux();
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public void removeFromCopiedStackNbt(NbtCompound nbt) {
         nbt.remove("LinkedMembers");
     }
 
+    @Override
+    public void markRemoved() {
+        super.markRemoved();
+        this.linkCaches.clear();
+        this.linkedNodes.clear();
+        this.linkedNodesSource = null;
+        if (this.world == null || this.world.isClient) return;
+
+        FluxSyncHandler.forget(this);
+        if (!this.broken && !(this instanceof AethumNetworkNode) && !this.links.isEmpty() && Affinity.config().fluxNetworkVirtualMemberCatchUp()) {
+            this.world.getComponent(AffinityComponents.FLUX_NETWORKS).unloadMember(this.pos, this);
+        }
+    }
+
     protected void sendFluxUpdate() {
         if (this.world.isClient) return;
 
         FluxSyncHandler.queueUpdate(this);
         this.world.markDirty(this.pos);
+
+        this.notifyLinkedNodes();
+    }
+
+    /**
+     * Notify all nodes linked to this member that its state
+     * changed, which wakes up their networks if they are dormant.
+     * The linked nodes are resolved once and kept until the links of this
+     * member change or one of them is removed, so this is cheap enough to call
+     * on every flux change. Nodes in unloaded chunks are retried at most once
+     * per {@link #LINKED_NODE_RETRY_INTERVAL} ticks - until then, their network
+     * only notices changes through its regular dormancy recheck
+     */
+    protected void notifyLinkedNodes() {
+        if (this.world == null || this.world.isClient) return;
+
+        if (this.linkedNodesSource != this.links.positions()
+                || (this.linkedNodesIncomplete && this.world.getTime() - this.linkedNodesResolveTime >= LINKED_NODE_RETRY_INTERVAL)) {
+            this.resolveLinkedNodes();
+        }
+
+        for (int i = 0; i < this.linkedNodes.size(); i++) {
+            var node = this.linkedNodes.get(i);
+            if (node instanceof BlockEntity entity && entity.isRemoved()) {
+                this.linkedNodesSource = null;
+                continue;
+            }
+
+            node.onLinkedMemberChanged(this.pos);
+        }
+    }
+
+    private void resolveLinkedNodes() {
+        this.linkedNodes.clear();
+        this.linkedNodesSource = this.links.positions();
+        this.linkedNodesIncomplete = false;
+        this.linkedNodesResolveTime = this.world.getTime();
+
+        for (var linkPos : this.linkedNodesSource) {
+            var member = this.findLinkedMember(linkPos);
+
+            if (member == null) {
+                this.linkedNodesIncomplete = true;
+            } else if (member instanceof AethumNetworkNode node) {
+                this.linkedNodes.add(node);
+            }
+        }
     }
 
     @Environment(EnvType.CLIENT)
     public void readFluxUpdate(long flux) {
+        this.syncedFlux = flux;
         this.fluxStorage.setFlux(flux);
+
+        if (this.fluxInterpolator == null) {
+            this.fluxInterpolator = new FluxInterpolator(flux);
+        } else {
+            this.fluxInterpolator.pushSample(flux);
+        }
+    }
+
+    @Environment(EnvType.CLIENT)
+    public long syncedFlux() {
+        return this.syncedFlux;
     }
 
     // -------
     // Linking
     // -------
 
+    /**
+     * @return The targets of all links of the given type. This view is
+     * cached until the links of this member change and must not be modified
+     */
     protected Set<BlockPos> getLinksByType(AethumLink.Type type) {
-        var result = new HashSet<BlockPos>();
-        for (var entry : this.links.entrySet()) {
-            if (entry.getValue() != type) continue;
-            result.add(entry.getKey());
-        }
-        return result;
+        return this.links.positionsByType(type);
+    }
+
+    /**
+     * Find the member this one is linked to at the given position. On the
+     * server, this goes through a {@link BlockApiCache} kept for every link so
+     * that the block entity does not need to be looked up again on every call.
+     * The target's chunk is never loaded by this
+     *
+     * @return The linked member, or {@code null} if there is
+     * no link to {@code pos} or the target is not loaded
+     */
+    public @Nullable AethumNetworkMember findLinkedMember(BlockPos pos) {
+        if (!this.links.contains(pos)) return null;
+        if (!this.world.isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) return null;
+        if (!(this.world instanceof ServerWorld serverWorld)) return Affinity.AETHUM_MEMBER.find(this.world, pos, null);
+
+        return this.linkCaches.computeIfAbsent(pos, linkPos -> BlockApiCache.create(Affinity.AETHUM_MEMBER, serverWorld, linkPos)).find(null);
+    }
+
+    /**
+     * Drop the lookup cache of the link to the given position,
+     * must be called whenever a link is removed from {@link #links}
+     */
+    protected void forgetLinkCache(BlockPos pos) {
+        this.linkCaches.remove(pos);
+    }
+
+    protected void forgetLinkCaches() {
+        this.linkCaches.clear();
     }
 
     @Override
     public Set<BlockPos> linkedMembers() {
-        return links.keySet();
+        return this.links.positions();
     }
 
     @Override
     public boolean isLinked(BlockPos pos) {
-        return this.links.containsKey(pos);
+        return this.links.contains(pos);
     }
 
     @Override
     public boolean addLinkParent(BlockPos pos, AethumLink.Type type) {
         if (isLinked(pos)) return false;
 
-        this.links.put(pos.toImmutable(), type);
+        this.links.put(pos, type);
         this.markDirty(true);
 
         return true;
@@ -188,7 +339,10 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
     @Override
     public void onLinkTargetRemoved(BlockPos pos) {
         this.links.remove(pos);
+        this.forgetLinkCache(pos);
         this.markDirty(true);
+
+        FluxTopologyHandler.onUnlinked(this.world, this.pos, pos);
     }
 
     // ------------
@@ -197,15 +351,7 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
 
     @Override
     public void updateTooltipEntries(boolean force, float delta) {
-        if (force) {
-            this.tooltipFlux = this.displayFlux();
-            return;
-        }
-
-        if (this.displayFlux() != this.tooltipFlux) {
-            float diff = Delta.compute(this.tooltipFlux, this.displayFlux(), delta * .5f);
-            this.tooltipFlux += Math.signum(diff) * Math.max(1, Math.abs(diff));
-        }
+        this.tooltipFlux = this.interpolatedDisplayFlux();
     }
 
     @Override
@@ -226,6 +372,24 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
         return this.flux();
     }
 
+    /**
+     * @return The amount of flux stored in this member, smoothed
+     * between the updates received from the server
+     */
+    @Environment(EnvType.CLIENT)
+    public long interpolatedFlux() {
+        if (this.fluxInterpolator == null) this.fluxInterpolator = new FluxInterpolator(this.flux());
+        return this.fluxInterpolator.get();
+    }
+
+    /**
+     * @return The smoothed equivalent of {@link #displayFlux()}
+     */
+    @Environment(EnvType.CLIENT)
+    public long interpolatedDisplayFlux() {
+        return this.interpolatedFlux();
+    }
+
     @Override
     public long flux() {
         return this.fluxStorage.flux();
@@ -250,6 +414,11 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
         return this.fluxStorage.insert(max, transaction);
     }
 
+    @Override
+    public long insertDirect(long max) {
+        return this.fluxStorage.insertDirect(max);
+    }
+
     @Override
     public boolean canInsert() {
         return this.fluxStorage.canInsert();
@@ -265,6 +434,11 @@ public abstract class AethumNetworkMemberBlockEntity extends SyncedBlockEntity i
         return this.fluxStorage.extract(max, transaction);
     }
 
+    @Override
+    public long extractDirect(long max) {
+        return this.fluxStorage.extractDirect(max);
+    }
+
     @Override
     public long maxExtract() {
         return this.fluxStorage.maxExtract();
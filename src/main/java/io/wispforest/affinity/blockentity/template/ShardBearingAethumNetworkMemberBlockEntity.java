@@ -37,6 +37,8 @@ public abstract class ShardBearingAethumNetworkMemberBlockEntity extends AethumN
     protected void updateTransferRateForTier() {
         this.fluxStorage.setMaxExtract(this.tier.maxTransfer());
         this.fluxStorage.setMaxInsert(this.tier.maxTransfer());
+
+        this.notifyLinkedNodes();
     }
 
     @Override
@@ -0,0 +1,51 @@
+package io.wispforest.affinity.client.misc;
+
+import net.minecraft.util.Util;
+
+/**
+ * Smooths the flux values a client receives from the server by moving
+ * linearly from the currently displayed value to the latest sample over
+ * the time that passed between the last two samples
+ */
+public class FluxInterpolator {
+
+    private static final long MAX_SAMPLE_INTERVAL = 2500;
+
+    private long from;
+    private long to;
+
+    private long segmentStart;
+    private long segmentLength = 1;
+    private long lastSampleTime;
+
+    public FluxInterpolator(long flux) {
+        this.set(flux);
+    }
+
+    public void pushSample(long flux) {
+        long now = Util.getMeasuringTimeMs();
+
+        this.from = this.get(now);
+        this.to = flux;
+
+        this.segmentStart = now;
+        this.segmentLength = Math.max(1, Math.min(MAX_SAMPLE_INTERVAL, now - this.lastSampleTime));
+        this.lastSampleTime = now;
+    }
+
+    public void set(long flux) {
+        this.from = this.to = flux;
+        this.lastSampleTime = this.segmentStart = Util.getMeasuringTimeMs();
+    }
+
+    public long get() {
+        return this.get(Util.getMeasuringTimeMs());
+    }
+
+    private long get(long time) {
+        if (time >= this.segmentStart + this.segmentLength) return this.to;
+
+        double progress = (time - this.segmentStart) / (double) this.segmentLength;
+        return this.from + Math.round((this.to - this.from) * progress);
+    }
+}
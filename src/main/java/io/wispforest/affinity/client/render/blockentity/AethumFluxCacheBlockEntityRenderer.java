@@ -34,13 +34,14 @@ public class AethumFluxCacheBlockEntityRenderer extends AffinityBlockEntityRende
         var bottomY = cachePart.isBase ? 0.25f : 0;
         var topY = (cachePart.hasCap ? 0.75f : 1);
 
-        var targetFluxY = bottomY + (entity.flux() / (float) entity.fluxCapacity()) * (topY - bottomY);
+        var flux = entity.interpolatedBlockFlux();
+        var targetFluxY = bottomY + (flux / (float) AethumFluxCacheBlockEntity.FLUX_PER_CACHE) * (topY - bottomY);
         entity.renderFluxY += Delta.compute(entity.renderFluxY, targetFluxY, frameDelta);
 
         var parent = entity.parentRef();
         var noFluxAbove = parent == null || parent.nextIsEmpty();
 
-        if (!entity.tier().isNone() && (entity.flux() > 1 || cachePart.isBase) && noFluxAbove) {
+        if (!entity.tier().isNone() && (flux > 1 || cachePart.isBase) && noFluxAbove) {
             matrices.push();
 
             var y = entity.renderFluxY - .125 + Math.sin(time / 2000d) * .02;
@@ -62,7 +63,7 @@ public class AethumFluxCacheBlockEntityRenderer extends AffinityBlockEntityRende
         var consumer = vertexConsumers.getBuffer(RenderLayer.getTranslucent());
         var sprite = WATER_TEXTURE.getSprite();
 
-        if (entity.flux() > 1) {
+        if (flux > 1) {
             //noinspection ConstantConditions
             var quadEmitter = RendererAccess.INSTANCE.getRenderer().meshBuilder().getEmitter();
             for (var direction : Direction.values()) {
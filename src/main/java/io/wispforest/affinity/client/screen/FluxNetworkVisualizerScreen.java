@@ -15,12 +15,15 @@ import io.wispforest.affinity.client.render.PostEffectBuffer;
 import io.wispforest.affinity.client.render.blockentity.LinkRenderer;
 import io.wispforest.affinity.misc.MixinHooks;
 import io.wispforest.affinity.mixin.client.CameraInvoker;
+import io.wispforest.affinity.network.AffinityNetwork;
+import io.wispforest.affinity.network.FluxTopologyHandler;
 import io.wispforest.owo.ui.base.BaseUIModelScreen;
 import io.wispforest.owo.ui.component.LabelComponent;
 import io.wispforest.owo.ui.container.FlowLayout;
 import io.wispforest.owo.ui.core.Color;
 import io.wispforest.owo.ui.core.Easing;
 import io.wispforest.worldmesher.WorldMesh;
+import it.unimi.dsi.fastutil.longs.*;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
@@ -50,9 +53,17 @@ public class FluxNetworkVisualizerScreen extends BaseUIModelScreen<FlowLayout> {
 
     public static final PostEffectBuffer VISUALIZER_BUFFER = new PostEffectBuffer();
 
-    private final WorldMesh mesh;
-    private final BlockRenderView world;
-    private final double xSize, ySize, zSize;
+    private final long origin;
+
+    private final Long2ByteOpenHashMap memberFlags = new Long2ByteOpenHashMap();
+    private final Long2LongOpenHashMap memberCapacities = new Long2LongOpenHashMap();
+    private final Long2ObjectOpenHashMap<LongSet> links = new Long2ObjectOpenHashMap<>();
+    private boolean topologyChanged = false;
+    private boolean awaitingSnapshot = true;
+
+    private WorldMesh mesh;
+    private BlockRenderView world;
+    private double xSize, ySize, zSize;
 
     private int networkMembers = 0;
     private int networkNodes = 0;
@@ -62,7 +73,7 @@ public class FluxNetworkVisualizerScreen extends BaseUIModelScreen<FlowLayout> {
     private final Interpolator xOffset = new Interpolator(0), yOffset = new Interpolator(0);
     private final Interpolator rotation = new Interpolator(45), slant = new Interpolator(30);
 
-    private final Interpolator scale;
+    private Interpolator scale;
 
     private float age = 0;
     private long lastClickTime = 0;
@@ -70,56 +81,191 @@ public class FluxNetworkVisualizerScreen extends BaseUIModelScreen<FlowLayout> {
     private BlockEntity focusedEntity = null;
     private float focusViewTime = 0;
 
+    /**
+     * Open the visualizer on the network of the given member. Until the server sent the
+     * topology of the network, only the initial member is shown
+     */
     public FluxNetworkVisualizerScreen(AethumNetworkMemberBlockEntity initialMember) {
         super(FlowLayout.class, Affinity.id("flux_network_visualizer"));
 
-        var members = AethumNetworkMember.traverseNetwork(MinecraftClient.getInstance().world, initialMember.getPos(), (peer, isMultiblockChild) -> {
-            this.members.add(peer);
+        this.origin = initialMember.getPos().asLong();
 
-            if (!isMultiblockChild) {
-                this.networkMembers++;
-                this.networkCapacity += peer.fluxCapacity();
-                if (peer instanceof AethumNetworkNode) this.networkNodes++;
-            } else {
-                this.networkCapacity += peer.fluxCapacity();
+        this.memberFlags.put(this.origin, initialMember instanceof AethumNetworkNode ? FluxTopologyHandler.NODE_FLAG : 0);
+        this.memberCapacities.put(this.origin, initialMember.fluxCapacity());
+
+        if (initialMember instanceof MultiblockAethumNetworkMember multiblock) {
+            for (var childPos : multiblock.memberBlocks()) {
+                if (childPos.asLong() == this.origin) continue;
+                this.memberFlags.put(childPos.asLong(), FluxTopologyHandler.MULTIBLOCK_CHILD_FLAG);
             }
-        });
+        }
+
+        this.rebuildMesh();
+        this.scale = new Interpolator(this.fittingScale());
+
+        AffinityNetwork.CHANNEL.clientHandle().send(new FluxTopologyHandler.SubscribePacket(initialMember.getPos()));
+    }
+
+    @Override
+    protected void build(FlowLayout rootComponent) {
+        this.updateLabels();
+    }
+
+    // --------
+    // Topology
+    // --------
+
+    public void onTopologyReceived(FluxTopologyHandler.TopologyPacket packet) {
+        if (packet.reset()) {
+            this.memberFlags.clear();
+            this.memberCapacities.clear();
+            this.links.clear();
+        }
+
+        for (int i = 0; i < packet.members().length; i++) {
+            this.memberFlags.put(packet.members()[i], packet.flags()[i]);
+            this.memberCapacities.put(packet.members()[i], packet.capacities()[i]);
+        }
+
+        for (int i = 0; i < packet.linkFrom().length; i++) {
+            this.link(packet.linkFrom()[i], packet.linkTo()[i]);
+        }
+
+        if (!packet.complete()) return;
+        if (this.memberFlags.isEmpty()) this.memberFlags.put(this.origin, (byte) 0);
+
+        this.rebuildMesh();
+
+        if (this.awaitingSnapshot) {
+            this.scale = new Interpolator(this.fittingScale());
+            this.awaitingSnapshot = false;
+        }
+    }
+
+    public void onUnlinked(long first, long second) {
+        var firstLinks = this.links.get(first);
+        if (firstLinks != null) firstLinks.remove(second);
+
+        var secondLinks = this.links.get(second);
+        if (secondLinks != null) secondLinks.remove(first);
+
+        this.pruneUnreachableMembers();
+        this.topologyChanged = true;
+    }
+
+    private void link(long first, long second) {
+        this.links.computeIfAbsent(first, $ -> new LongOpenHashSet()).add(second);
+        this.links.computeIfAbsent(second, $ -> new LongOpenHashSet()).add(first);
+    }
+
+    /**
+     * Drop all members which are no longer connected to the member
+     * this screen was opened on. Multiblock children are kept as long
+     * as any member of their multiblock is reachable
+     */
+    private void pruneUnreachableMembers() {
+        var reachable = new LongOpenHashSet();
+        var queue = new LongArrayFIFOQueue();
+
+        reachable.add(this.origin);
+        queue.enqueue(this.origin);
+
+        while (!queue.isEmpty()) {
+            var neighbors = this.links.get(queue.dequeueLong());
+            if (neighbors == null) continue;
+
+            for (long neighbor : neighbors) {
+                if (reachable.add(neighbor)) queue.enqueue(neighbor);
+            }
+        }
+
+        var pos = new BlockPos.Mutable();
+        for (long memberPos : reachable.toLongArray()) {
+            pos.set(memberPos);
+            if (!(Affinity.AETHUM_MEMBER.find(MinecraftClient.getInstance().world, pos, null) instanceof MultiblockAethumNetworkMember multiblock)) continue;
+
+            for (var childPos : multiblock.memberBlocks()) {
+                reachable.add(childPos.asLong());
+            }
+        }
+
+        this.memberFlags.keySet().retainAll(reachable);
+        this.memberCapacities.keySet().retainAll(reachable);
+        this.links.keySet().retainAll(reachable);
+    }
+
+    /**
+     * Rebuild the mesh and statistics of this screen from
+     * the currently known topology of the network
+     */
+    private void rebuildMesh() {
+        this.members.clear();
+        this.networkMembers = 0;
+        this.networkNodes = 0;
+        this.networkCapacity = 0;
+
+        var clientWorld = MinecraftClient.getInstance().world;
+        var positions = new ArrayList<BlockPos>(this.memberFlags.size());
 
         int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
         int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
 
-        for (var member : members) {
-            minX = Math.min(member.getX(), minX);
-            minY = Math.min(member.getY(), minY);
-            minZ = Math.min(member.getZ(), minZ);
+        for (var entry : this.memberFlags.long2ByteEntrySet()) {
+            var pos = BlockPos.fromLong(entry.getLongKey());
+            byte flags = entry.getByteValue();
 
-            maxX = Math.max(member.getX(), maxX);
-            maxY = Math.max(member.getY(), maxY);
-            maxZ = Math.max(member.getZ(), maxZ);
+            positions.add(pos);
+
+            this.networkCapacity += this.memberCapacities.get(entry.getLongKey());
+            if ((flags & FluxTopologyHandler.MULTIBLOCK_CHILD_FLAG) == 0) {
+                this.networkMembers++;
+                if ((flags & FluxTopologyHandler.NODE_FLAG) != 0) this.networkNodes++;
+            }
+
+            var member = Affinity.AETHUM_MEMBER.find(clientWorld, pos, null);
+            if (member != null) this.members.add(member);
+
+            minX = Math.min(pos.getX(), minX);
+            minY = Math.min(pos.getY(), minY);
+            minZ = Math.min(pos.getZ(), minZ);
+
+            maxX = Math.max(pos.getX(), maxX);
+            maxY = Math.max(pos.getY(), maxY);
+            maxZ = Math.max(pos.getZ(), maxZ);
         }
 
-        this.world = new RenderView(members);
+        if (this.mesh != null) this.mesh.reset();
+
+        this.world = new RenderView(positions);
         this.mesh = new WorldMesh.Builder(this.world, new BlockPos(minX, minY, minZ), new BlockPos(maxX, maxY, maxZ)).build();
 
         this.xSize = this.mesh.dimensions().getLengthX();
         this.ySize = this.mesh.dimensions().getLengthY();
         this.zSize = this.mesh.dimensions().getLengthZ();
 
-        this.scale = new Interpolator(Math.min(15 / (Math.max(xSize, Math.max(ySize, zSize))), 5));
+        this.focusedEntity = null;
+        this.topologyChanged = false;
+
+        if (this.uiAdapter != null) this.updateLabels();
     }
 
-    @Override
-    protected void build(FlowLayout rootComponent) {
-        rootComponent.childById(LabelComponent.class, "member-count-label").text(
+    private double fittingScale() {
+        return Math.min(15 / (Math.max(this.xSize, Math.max(this.ySize, this.zSize))), 5);
+    }
+
+    private void updateLabels() {
+        this.component(LabelComponent.class, "member-count-label").text(
             Text.translatable("gui.affinity.flux_network_visualizer.member_count", this.networkMembers));
-        rootComponent.childById(LabelComponent.class, "node-count-label").text(
+        this.component(LabelComponent.class, "node-count-label").text(
             Text.translatable("gui.affinity.flux_network_visualizer.node_count", this.networkNodes));
-        rootComponent.childById(LabelComponent.class, "flux-capacity-label").text(
+        this.component(LabelComponent.class, "flux-capacity-label").text(
             Text.translatable("gui.affinity.flux_network_visualizer.flux_capacity", this.networkCapacity));
     }
 
     @Override
     public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        if (this.topologyChanged) this.rebuildMesh();
+
         this.component(LabelComponent.class, "total-flux-label").text(Text.translatable(
             "gui.affinity.flux_network_visualizer.total_flux",
             this.members.stream().mapToLong(AethumFluxContainer::flux).sum()
@@ -331,6 +477,8 @@ public class FluxNetworkVisualizerScreen extends BaseUIModelScreen<FlowLayout> {
     public void removed() {
         super.removed();
         this.mesh.reset();
+
+        AffinityNetwork.CHANNEL.clientHandle().send(new FluxTopologyHandler.UnsubscribePacket());
     }
 
     public static class RenderView implements BlockRenderView {
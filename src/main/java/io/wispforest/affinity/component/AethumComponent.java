@@ -58,6 +58,10 @@ public abstract class AethumComponent<H> implements Component, AutoSyncedCompone
 
     public void setAethum(double aethum) {
         this.aethum = MathHelper.clamp(aethum, 0, this.maxAethum());
+        this.sync();
+    }
+
+    protected void sync() {
         this.key.sync(this.holder);
     }
 
@@ -42,6 +42,8 @@ public class AffinityComponents implements EntityComponentInitializer, ChunkComp
             ComponentRegistry.getOrCreate(Affinity.id("ethereal_node_storage"), EtherealNodeStorageComponent.class);
     public static final ComponentKey<EvadeComponent> EVADE =
             ComponentRegistry.getOrCreate(Affinity.id("evade"), EvadeComponent.class);
+    public static final ComponentKey<FluxNetworkComponent> FLUX_NETWORKS =
+            ComponentRegistry.getOrCreate(Affinity.id("flux_networks"), FluxNetworkComponent.class);
 
     @Override
     public void registerEntityComponentFactories(EntityComponentFactoryRegistry registry) {
@@ -65,6 +67,7 @@ public class AffinityComponents implements EntityComponentInitializer, ChunkComp
     @Override
     public void registerWorldComponentFactories(WorldComponentFactoryRegistry registry) {
         registry.register(WORLD_PINS, WorldPinsComponent::new);
+        registry.register(FLUX_NETWORKS, FluxNetworkComponent::new);
     }
 
     @Override
@@ -4,10 +4,12 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.misc.AethumAcquisitionCache;
+import io.wispforest.affinity.network.ChunkAethumSyncHandler;
 import io.wispforest.endec.impl.KeyedEndec;
 import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
@@ -16,10 +18,12 @@ import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.chunk.WorldChunk;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.ladysnake.cca.api.v3.component.tick.ServerTickingComponent;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -30,6 +34,7 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
     public static final LatchingAethumEffect INCREASED_NATURAL_SPAWNING = new LatchingAethumEffect(90, 85);
 
     private static final BiMap<Identifier, LatchingAethumEffect> EFFECT_REGISTRY = HashBiMap.create();
+    private static final List<LatchingAethumEffect> EFFECT_INDICES = new ArrayList<>();
     private static final KeyedEndec<Set<LatchingAethumEffect>> ACTIVE_EFFECTS_KEY = MinecraftEndecs.IDENTIFIER
             .xmap(EFFECT_REGISTRY::get, EFFECT_REGISTRY.inverse()::get)
             .listOf()
@@ -40,8 +45,23 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
     private boolean neighborsCached = false;
     private final ChunkAethumComponent[] neighbors = new ChunkAethumComponent[4];
 
+    /**
+     * The result of {@link #aethumAt(int, int)} for every column in this chunk, built on first
+     * query. Those values depend on the adjusted aethum of all chunks up to two chunks away, which in
+     * turn depends on their direct neighbors - so a change anywhere within {@link #GRID_INFLUENCE_RADIUS}
+     * chunks invalidates the grid
+     */
+    private double @Nullable [] aethumGrid = null;
+    private static final int GRID_INFLUENCE_RADIUS = 3;
+
     private Set<LatchingAethumEffect> activeEffects = new HashSet<>();
 
+    /**
+     * Whether this chunk is diffused by the {@link ChunkAethumField}
+     * of its world instead of in {@link #serverTick()}
+     */
+    boolean inDenseField = false;
+
     public ChunkAethumComponent(Chunk chunk) {
         super(AffinityComponents.CHUNK_AETHUM, chunk);
         this.pos = this.holder instanceof WorldChunk ? this.holder.getPos() : ChunkPos.ORIGIN;
@@ -51,6 +71,44 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
     public void setAethum(double aethum) {
         super.setAethum(aethum);
         this.holder.setNeedsSaving(true);
+        this.invalidateAethumGrids();
+    }
+
+    /**
+     * Chunk aethum changes far too often to sync every single one,
+     * they are batched up by the {@link ChunkAethumSyncHandler} instead
+     */
+    @Override
+    protected void sync() {
+        if (!(this.holder instanceof WorldChunk chunk) || !(chunk.getWorld() instanceof ServerWorld world)) return;
+        ChunkAethumSyncHandler.queueUpdate(world, this.pos);
+    }
+
+    /**
+     * Apply a value and set of active effects received
+     * through a {@link ChunkAethumSyncHandler.ChunkAethumSyncPacket}
+     */
+    public void readAethumUpdate(double aethum, int activeEffectMask) {
+        this.aethum = aethum;
+        this.aethumGrid = null;
+
+        this.activeEffects.clear();
+        for (int i = 0; i < EFFECT_INDICES.size(); i++) {
+            if ((activeEffectMask & (1 << i)) != 0) this.activeEffects.add(EFFECT_INDICES.get(i));
+        }
+    }
+
+    /**
+     * @return The active effects of this chunk as a bitmask, each
+     * effect being identified by the order in which it was registered
+     */
+    public int activeEffectMask() {
+        int mask = 0;
+        for (int i = 0; i < EFFECT_INDICES.size(); i++) {
+            if (this.activeEffects.contains(EFFECT_INDICES.get(i))) mask |= 1 << i;
+        }
+
+        return mask;
     }
 
     public boolean isEffectActive(LatchingAethumEffect effect) {
@@ -74,16 +132,25 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
                 neighborComponent.neighbors[dir.getOpposite().getHorizontal()] = this;
             }
             this.neighborsCached = true;
+            this.invalidateAethumGrids();
         }
 
+        boolean effectsChanged = false;
         for (var effect : EFFECT_REGISTRY.values()) {
             if (this.activeEffects.contains(effect)) {
-                if (effect.testRelease(this.aethum)) this.activeEffects.remove(effect);
+                if (effect.testRelease(this.aethum)) effectsChanged |= this.activeEffects.remove(effect);
             } else {
-                if (effect.testTrigger(this.aethum)) this.activeEffects.add(effect);
+                if (effect.testTrigger(this.aethum)) effectsChanged |= this.activeEffects.add(effect);
             }
         }
 
+        if (effectsChanged) this.sync();
+
+        if (Affinity.config().denseAethumDiffusion()) {
+            if (!this.inDenseField) ChunkAethumField.add((ServerWorld) world, this);
+            return;
+        }
+
         if (world.getRandom().nextDouble() > .05) return;
 
         final double previousAethum = this.aethum;
@@ -106,15 +173,28 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
     public double adjustedAethum() {
         if (!(this.holder instanceof WorldChunk)) return -1;
 
-        double mean = this.aethum;
-        double min = this.aethum;
-        double max = this.aethum;
+        final var neighborAethum = new double[4];
+        for (int i = 0; i < 4; i++) {
+            neighborAethum[i] = this.neighbors[i] != null ? this.neighbors[i].getAethum() : Double.NaN;
+        }
 
-        for (var dir : Direction.Type.HORIZONTAL) {
-            final var neighbor = neighbors[dir.getHorizontal()];
-            if (neighbor == null) continue;
+        return adjustAethum(this.aethum, neighborAethum);
+    }
+
+    /**
+     * Blend the aethum of a chunk with that of its direct neighbors
+     * the same way {@link #adjustedAethum()} does
+     *
+     * @param neighborAethum The aethum of the neighbors, {@link Double#NaN} for those that are absent
+     */
+    public static double adjustAethum(double chunkAethum, double[] neighborAethum) {
+        double mean = chunkAethum;
+        double min = chunkAethum;
+        double max = chunkAethum;
+
+        for (var aethum : neighborAethum) {
+            if (Double.isNaN(aethum)) continue;
 
-            final var aethum = neighbor.getAethum();
             mean += aethum;
 
             if (aethum < min) min = aethum;
@@ -132,24 +212,69 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
         return mean / 5;
     }
 
+    /**
+     * Interpolate the aethum at the given column, which must lie within this chunk,
+     * from the adjusted aethum of the surrounding 5x5 chunks. On the server, the results
+     * for the entire chunk are cached until aethum in the vicinity changes
+     */
     public double aethumAt(int x, int z) {
-        final var pos = new BlockPos(x, 0, z);
-
         if (!(this.holder instanceof WorldChunk worldChunk)) return -1;
-        final var world = worldChunk.getWorld();
+
+        if (worldChunk.getWorld().isClient) {
+            return interpolateAethum(this.sampleAdjustedAethum(worldChunk), this.pos, x & 15, z & 15, new BlockPos.Mutable());
+        }
+
+        if (this.aethumGrid == null) {
+            final var samples = this.sampleAdjustedAethum(worldChunk);
+            final var grid = new double[256];
+            final var mutable = new BlockPos.Mutable();
+
+            for (int localZ = 0; localZ < 16; localZ++) {
+                for (int localX = 0; localX < 16; localX++) {
+                    grid[localZ << 4 | localX] = interpolateAethum(samples, this.pos, localX, localZ, mutable);
+                }
+            }
+
+            this.aethumGrid = grid;
+        }
+
+        return this.aethumGrid[(z & 15) << 4 | (x & 15)];
+    }
+
+    private double[] sampleAdjustedAethum(WorldChunk chunk) {
+        final var world = chunk.getWorld();
+        final var samples = new double[25];
+
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                samples[(x + 2) * 5 + z + 2] = world.getChunk(this.pos.x + x, this.pos.z + z).getComponent(AffinityComponents.CHUNK_AETHUM).adjustedAethum();
+            }
+        }
+
+        return samples;
+    }
+
+    /**
+     * Interpolate the aethum at a column of {@code chunk} from the adjusted aethum of
+     * the surrounding 5x5 chunks, stored in {@code samples} at {@code (x + 2) * 5 + z + 2}.
+     * Samples which are {@link Double#NaN} are skipped
+     */
+    public static double interpolateAethum(double[] samples, ChunkPos chunk, int localX, int localZ, BlockPos.Mutable pos) {
+        pos.set(chunk.getStartX() + localX, 0, chunk.getStartZ() + localZ);
 
         double numerator = 0;
         double denominator = 0;
 
-        for (x = this.pos.x - 2; x <= this.pos.x + 2; x++) {
-            for (z = this.pos.z - 2; z <= this.pos.z + 2; z++) {
-                final var aethum = world.getChunk(x, z).getComponent(AffinityComponents.CHUNK_AETHUM).adjustedAethum();
-
-                final var center = getCenter(x, z);
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                final var center = getCenter(chunk.x + x, chunk.z + z);
                 final var squaredDistance = pos.getSquaredDistanceFromCenter(center.getX(), center.getY(), center.getZ());
 
+                final var sample = samples[(x + 2) * 5 + z + 2];
+                if (Double.isNaN(sample)) continue;
+
                 final var weightedDistance = 1 / (squaredDistance * squaredDistance);
-                numerator += weightedDistance * aethum;
+                numerator += weightedDistance * sample;
                 denominator += weightedDistance;
             }
         }
@@ -157,6 +282,30 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
         return numerator / denominator;
     }
 
+    /**
+     * Drop the cached aethum grids of all loaded chunks this chunk's aethum feeds into. Chunks
+     * are looked up directly instead of through the cached neighbor links, since grids are also
+     * built for loaded chunks which are not ticking and thus never linked to their neighbors
+     */
+    private void invalidateAethumGrids() {
+        this.aethumGrid = null;
+        if (!(this.holder instanceof WorldChunk worldChunk) || !(worldChunk.getWorld() instanceof ServerWorld world)) return;
+
+        final var chunkManager = world.getChunkManager();
+        for (int x = -GRID_INFLUENCE_RADIUS; x <= GRID_INFLUENCE_RADIUS; x++) {
+            for (int z = -GRID_INFLUENCE_RADIUS; z <= GRID_INFLUENCE_RADIUS; z++) {
+                final var chunk = chunkManager.getWorldChunk(this.pos.x + x, this.pos.z + z);
+                if (chunk == null) continue;
+
+                chunk.getComponent(AffinityComponents.CHUNK_AETHUM).aethumGrid = null;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #aethumAt(int, int)}, but reads the adjusted aethum of the surrounding
+     * chunks from {@code cache}. This touches no world state, so it may be called off-thread
+     */
     public double fastAethumAt(AethumAcquisitionCache cache, int x, int z) {
         final var pos = new BlockPos(x, 0, z);
 
@@ -211,10 +360,19 @@ public class ChunkAethumComponent extends AethumComponent<Chunk> implements Serv
     public void readFromNbt(@NotNull NbtCompound tag, RegistryWrapper.WrapperLookup registries) {
         super.readFromNbt(tag, registries);
         this.activeEffects = tag.get(ACTIVE_EFFECTS_KEY);
+        this.aethumGrid = null;
     }
 
+    /**
+     * Register a latching effect. Effects are synced by the order in which they were
+     * registered, so this must happen in the same order on client and server. At most
+     * 32 effects are supported
+     */
     public static void registerAethumEffect(Identifier id, LatchingAethumEffect effect) {
+        if (EFFECT_INDICES.size() == Integer.SIZE) throw new IllegalStateException("Cannot register more than " + Integer.SIZE + " aethum effects");
+
         EFFECT_REGISTRY.put(id, effect);
+        EFFECT_INDICES.add(effect);
     }
 
     public record LatchingAethumEffect(double triggerThreshold, double releaseThreshold) {
@@ -0,0 +1,224 @@
+package io.wispforest.affinity.component;
+
+import io.wispforest.affinity.Affinity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An alternative to the per-chunk random diffusion in {@link ChunkAethumComponent#serverTick()}.
+ * The aethum of every loaded chunk is mirrored into a dense tile of 32x32 chunks per region,
+ * and whole tiles are diffused every {@code denseAethumDiffusionInterval} ticks. The kernel is
+ * deterministic and moves the amount of aethum the random diffusion would move on average
+ */
+public class ChunkAethumField {
+
+    private static final int TILE_BITS = 5;
+    private static final int TILE_SIZE = 1 << TILE_BITS;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int PADDED_SIZE = TILE_SIZE + 2;
+
+    private static final double DIFFUSION_CHANCE = .05;
+    private static final double DIFFUSION_THRESHOLD = 15;
+    private static final double DIFFUSION_FACTOR = .1;
+    private static final double MAX_DIFFUSION = 2.5;
+
+    private static final Map<ServerWorld, ChunkAethumField> FIELDS = new WeakHashMap<>();
+
+    private final Long2ObjectOpenHashMap<Tile> tiles = new Long2ObjectOpenHashMap<>();
+
+    // Scratch buffers for the tile that is currently being
+    // diffused, padded by one chunk of its neighbors on each side
+    private final double[] values = new double[PADDED_SIZE * PADDED_SIZE];
+    private final double[] present = new double[PADDED_SIZE * PADDED_SIZE];
+
+    public static void add(ServerWorld world, ChunkAethumComponent component) {
+        FIELDS.computeIfAbsent(world, $ -> new ChunkAethumField()).addChunk(component);
+    }
+
+    private void addChunk(ChunkAethumComponent component) {
+        var pos = component.getPos();
+        var tile = this.tiles.computeIfAbsent(ChunkPos.toLong(pos.x >> TILE_BITS, pos.z >> TILE_BITS), $ -> new Tile());
+
+        int idx = index(pos.x & TILE_MASK, pos.z & TILE_MASK);
+        if (tile.chunks[idx] == null) tile.chunkCount++;
+
+        tile.chunks[idx] = component;
+        component.inDenseField = true;
+    }
+
+    private void removeChunk(ChunkPos pos) {
+        long tileKey = ChunkPos.toLong(pos.x >> TILE_BITS, pos.z >> TILE_BITS);
+
+        var tile = this.tiles.get(tileKey);
+        if (tile == null) return;
+
+        int idx = index(pos.x & TILE_MASK, pos.z & TILE_MASK);
+        if (tile.chunks[idx] == null) return;
+
+        tile.chunks[idx].inDenseField = false;
+        tile.chunks[idx] = null;
+
+        if (--tile.chunkCount == 0) this.tiles.remove(tileKey);
+    }
+
+    private void clear() {
+        for (var tile : this.tiles.values()) {
+            for (var chunk : tile.chunks) {
+                if (chunk != null) chunk.inDenseField = false;
+            }
+        }
+
+        this.tiles.clear();
+    }
+
+    // -------
+
+    /**
+     * Run one diffusion step over all tiles. The aethum of every chunk is mirrored
+     * first so that tiles can read the edges of their neighbors, then each tile is
+     * diffused into its own output buffer and only the chunks whose aethum changed are written back
+     */
+    private void step(double rate) {
+        for (var tile : this.tiles.values()) {
+            tile.mirror();
+        }
+
+        for (var entry : this.tiles.long2ObjectEntrySet()) {
+            this.fillPadded(ChunkPos.getPackedX(entry.getLongKey()), ChunkPos.getPackedZ(entry.getLongKey()), entry.getValue());
+            this.diffuse(entry.getValue().next, rate);
+        }
+
+        for (var tile : this.tiles.values()) {
+            tile.writeBack();
+        }
+    }
+
+    private void fillPadded(int tileX, int tileZ, Tile tile) {
+        Arrays.fill(this.values, 0);
+        Arrays.fill(this.present, 0);
+
+        for (int z = 0; z < TILE_SIZE; z++) {
+            System.arraycopy(tile.aethum, z * TILE_SIZE, this.values, (z + 1) * PADDED_SIZE + 1, TILE_SIZE);
+            System.arraycopy(tile.present, z * TILE_SIZE, this.present, (z + 1) * PADDED_SIZE + 1, TILE_SIZE);
+        }
+
+        var west = this.tiles.get(ChunkPos.toLong(tileX - 1, tileZ));
+        var east = this.tiles.get(ChunkPos.toLong(tileX + 1, tileZ));
+        var north = this.tiles.get(ChunkPos.toLong(tileX, tileZ - 1));
+        var south = this.tiles.get(ChunkPos.toLong(tileX, tileZ + 1));
+
+        for (int i = 0; i < TILE_SIZE; i++) {
+            if (west != null) this.copyHalo(west, index(TILE_SIZE - 1, i), (i + 1) * PADDED_SIZE);
+            if (east != null) this.copyHalo(east, index(0, i), (i + 1) * PADDED_SIZE + TILE_SIZE + 1);
+            if (north != null) this.copyHalo(north, index(i, TILE_SIZE - 1), i + 1);
+            if (south != null) this.copyHalo(south, index(i, 0), (TILE_SIZE + 1) * PADDED_SIZE + i + 1);
+        }
+    }
+
+    private void copyHalo(Tile from, int fromIdx, int paddedIdx) {
+        this.values[paddedIdx] = from.aethum[fromIdx];
+        this.present[paddedIdx] = from.present[fromIdx];
+    }
+
+    /**
+     * The diffusion kernel. Every chunk exchanges aethum with its four direct neighbors,
+     * absent chunks are masked out by multiplying with their presence. The loop body
+     * is straight-line arithmetic over flat arrays, which the JIT can vectorize
+     */
+    private void diffuse(double[] out, double rate) {
+        final var values = this.values;
+        final var present = this.present;
+
+        for (int z = 0; z < TILE_SIZE; z++) {
+            int row = (z + 1) * PADDED_SIZE + 1;
+
+            for (int x = 0; x < TILE_SIZE; x++) {
+                int c = row + x;
+                double value = values[c];
+
+                double outflow = flow(value, values[c - 1]) * present[c - 1]
+                        + flow(value, values[c + 1]) * present[c + 1]
+                        + flow(value, values[c - PADDED_SIZE]) * present[c - PADDED_SIZE]
+                        + flow(value, values[c + PADDED_SIZE]) * present[c + PADDED_SIZE];
+
+                out[z * TILE_SIZE + x] = value - outflow * rate * present[c];
+            }
+        }
+    }
+
+    /**
+     * @return The amount of aethum that moves from a chunk with {@code from} aethum to a neighbor
+     * with {@code to} aethum, negative if it moves the other way. Mirrors the rule of the per-chunk diffusion
+     */
+    private static double flow(double from, double to) {
+        double diff = from - to;
+        double magnitude = Math.abs(diff);
+
+        return magnitude < DIFFUSION_THRESHOLD
+                ? 0
+                : Math.copySign(Math.min(magnitude * DIFFUSION_FACTOR, MAX_DIFFUSION), diff);
+    }
+
+    private static int index(int x, int z) {
+        return z * TILE_SIZE + x;
+    }
+
+    private static class Tile {
+        private final ChunkAethumComponent[] chunks = new ChunkAethumComponent[TILE_SIZE * TILE_SIZE];
+        private final double[] aethum = new double[TILE_SIZE * TILE_SIZE];
+        private final double[] present = new double[TILE_SIZE * TILE_SIZE];
+        private final double[] next = new double[TILE_SIZE * TILE_SIZE];
+        private int chunkCount = 0;
+
+        private void mirror() {
+            for (int i = 0; i < this.chunks.length; i++) {
+                var chunk = this.chunks[i];
+
+                this.aethum[i] = chunk != null ? chunk.getAethum() : 0;
+                this.present[i] = chunk != null ? 1 : 0;
+            }
+        }
+
+        private void writeBack() {
+            for (int i = 0; i < this.chunks.length; i++) {
+                var chunk = this.chunks[i];
+                if (chunk == null || this.next[i] == this.aethum[i]) continue;
+
+                chunk.setAethum(this.next[i]);
+            }
+        }
+    }
+
+    static {
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            var field = FIELDS.get(world);
+            if (field == null) return;
+
+            if (!Affinity.config().denseAethumDiffusion()) {
+                field.clear();
+                FIELDS.remove(world);
+                return;
+            }
+
+            int interval = Affinity.config().denseAethumDiffusionInterval();
+            if (world.getTime() % interval != 0) return;
+
+            field.step(Math.min(1, interval * DIFFUSION_CHANCE));
+        });
+
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            var field = FIELDS.get(world);
+            if (field != null) field.removeChunk(chunk.getPos());
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> FIELDS.clear());
+    }
+}
@@ -40,19 +40,38 @@ public class EtherealNodeStorageComponent implements Component {
     private Map<GlobalPos, Text> nodeToName = new HashMap<>();
     private Multimap<GlobalPos, GlobalPos> nodeToInjectors = HashMultimap.create();
 
+    private final Map<UUID, Set<GlobalPos>> ownerToNodes = new HashMap<>();
+    private final Set<GlobalPos> globalNodes = new LinkedHashSet<>();
+
+    private @Nullable NbtCompound serializedState = null;
+
     public void addNode(GlobalPos nodePos, @Nullable UUID owner, @Nullable Text name, boolean global) {
-        this.nodes.put(nodePos, new NodeState(owner, global));
-        if (name != null) {
-            this.nodeToName.put(nodePos, name);
-        } else {
-            this.nodeToName.remove(nodePos);
+        var state = new NodeState(owner, global);
+
+        var previousState = this.nodes.put(nodePos, state);
+        if (!state.equals(previousState)) {
+            if (previousState != null) this.unindexNode(nodePos, previousState);
+            this.indexNode(nodePos, state);
+
+            this.markDirty();
         }
+
+        var previousName = name != null
+                ? this.nodeToName.put(nodePos, name)
+                : this.nodeToName.remove(nodePos);
+
+        if (!Objects.equals(name, previousName)) this.markDirty();
     }
 
     public void removeNode(GlobalPos nodePos) {
-        this.nodes.remove(nodePos);
+        var state = this.nodes.remove(nodePos);
+        if (state == null) return;
+
+        this.unindexNode(nodePos, state);
         this.nodeToInjectors.removeAll(nodePos);
         this.nodeToName.remove(nodePos);
+
+        this.markDirty();
     }
 
     public @Nullable UUID nodeOwner(GlobalPos nodePos) {
@@ -66,21 +85,12 @@ public class EtherealNodeStorageComponent implements Component {
     }
 
     public Stream<GlobalPos> listNodes(@NotNull UUID owner) {
-        return this.nodes.entrySet().stream()
-                .filter(entry -> {
-                    var state = entry.getValue();
-                    return owner.equals(state.owner);
-                })
-                .map(Map.Entry::getKey);
+        var nodes = this.ownerToNodes.get(owner);
+        return nodes == null ? Stream.empty() : nodes.stream();
     }
 
     public Stream<GlobalPos> listGlobalNodes() {
-        return this.nodes.entrySet().stream()
-                .filter(entry -> {
-                    var state = entry.getValue();
-                    return state.owner == null || state.global;
-                })
-                .map(Map.Entry::getKey);
+        return this.globalNodes.stream();
     }
 
     public @Nullable Collection<GlobalPos> listInjectors(GlobalPos nodePos) {
@@ -89,11 +99,31 @@ public class EtherealNodeStorageComponent implements Component {
     }
 
     public void addInjector(GlobalPos nodePos, GlobalPos injectorPos) {
-        this.nodeToInjectors.put(nodePos, injectorPos);
+        if (this.nodeToInjectors.put(nodePos, injectorPos)) this.markDirty();
     }
 
     public void removeInjector(GlobalPos nodePos, GlobalPos injectorPos) {
-        this.nodeToInjectors.remove(nodePos, injectorPos);
+        if (this.nodeToInjectors.remove(nodePos, injectorPos)) this.markDirty();
+    }
+
+    private void indexNode(GlobalPos nodePos, NodeState state) {
+        if (state.owner != null) this.ownerToNodes.computeIfAbsent(state.owner, uuid -> new LinkedHashSet<>()).add(nodePos);
+        if (state.owner == null || state.global) this.globalNodes.add(nodePos);
+    }
+
+    private void unindexNode(GlobalPos nodePos, NodeState state) {
+        if (state.owner != null) {
+            var ownedNodes = this.ownerToNodes.get(state.owner);
+            if (ownedNodes != null && ownedNodes.remove(nodePos) && ownedNodes.isEmpty()) {
+                this.ownerToNodes.remove(state.owner);
+            }
+        }
+
+        this.globalNodes.remove(nodePos);
+    }
+
+    private void markDirty() {
+        this.serializedState = null;
     }
 
     @Override
@@ -101,13 +131,31 @@ public class EtherealNodeStorageComponent implements Component {
         this.nodes = new LinkedHashMap<>(tag.get(NODES_ENDEC));
         this.nodeToName = new HashMap<>(tag.get(NODE_TO_NAME_ENDEC));
         this.nodeToInjectors = tag.get(NODE_TO_INJECTOR_ENDEC);
+
+        this.ownerToNodes.clear();
+        this.globalNodes.clear();
+        this.nodes.forEach(this::indexNode);
+
+        this.markDirty();
     }
 
+    /**
+     * Serialize this component into the given tag. The nodes
+     * are only re-encoded if they changed since the last call,
+     * otherwise the previous result is copied into the tag
+     */
     @Override
     public void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registries) {
-        tag.put(NODES_ENDEC, this.nodes);
-        tag.put(NODE_TO_NAME_ENDEC, this.nodeToName);
-        tag.put(NODE_TO_INJECTOR_ENDEC, this.nodeToInjectors);
+        if (this.serializedState == null) {
+            var state = new NbtCompound();
+            state.put(NODES_ENDEC, this.nodes);
+            state.put(NODE_TO_NAME_ENDEC, this.nodeToName);
+            state.put(NODE_TO_INJECTOR_ENDEC, this.nodeToInjectors);
+
+            this.serializedState = state;
+        }
+
+        tag.copyFrom(this.serializedState);
     }
 
     private record NodeState(@Nullable UUID owner, boolean global) {
@@ -0,0 +1,445 @@
+package io.wispforest.affinity.component;
+
+import io.wispforest.affinity.Affinity;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkMember;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
+import io.wispforest.affinity.aethumflux.net.FluxNetwork;
+import io.wispforest.affinity.aethumflux.net.VirtualFluxMember;
+import io.wispforest.affinity.aethumflux.net.VirtualFluxNode;
+import io.wispforest.affinity.blockentity.impl.AethumFluxNodeBlockEntity;
+import io.wispforest.affinity.blockentity.template.AethumNetworkMemberBlockEntity;
+import io.wispforest.affinity.misc.ServerTasks;
+import io.wispforest.endec.impl.KeyedEndec;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import org.ladysnake.cca.api.v3.component.Component;
+import org.ladysnake.cca.api.v3.component.tick.ServerTickingComponent;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class FluxNetworkComponent implements Component, ServerTickingComponent {
+
+    private static final KeyedEndec<List<VirtualFluxNode>> VIRTUAL_NODES = VirtualFluxNode.ENDEC.listOf().keyed("virtual_nodes", ArrayList::new);
+    private static final KeyedEndec<List<VirtualFluxMember>> VIRTUAL_MEMBERS = VirtualFluxMember.ENDEC.listOf().keyed("virtual_members", ArrayList::new);
+
+    /**
+     * Virtual nodes and members whose block has not been loaded again for this
+     * long are dropped. Any flux still pending on a virtual member is lost with it
+     */
+    private static final long VIRTUAL_RECORD_EXPIRY_TICKS = 24000 * 7;
+    private static final int VIRTUAL_RECORD_CHECK_INTERVAL = 200;
+
+    private static ForkJoinPool solverPool = null;
+
+    private final World world;
+    private final Set<FluxNetwork> networks = new LinkedHashSet<>();
+    private final List<FluxNetwork> tickingNetworks = new ArrayList<>();
+    private long budgetOverruns = 0;
+
+    private final Map<BlockPos, VirtualFluxNode> virtualNodes = new HashMap<>();
+    private final Map<BlockPos, VirtualFluxMember> virtualMembers = new HashMap<>();
+
+    public FluxNetworkComponent(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Add the given node to the network of any of its linked
+     * nodes, merging all of their networks in the process. If none of
+     * the linked nodes are part of a network yet, a new one is created
+     */
+    public void join(AethumFluxNodeBlockEntity node) {
+        if (node.network() != null) return;
+
+        FluxNetwork target = null;
+
+        var virtualNode = this.virtualNodes.get(node.getPos());
+        if (virtualNode != null) {
+            target = this.virtualNetworkOf(virtualNode);
+            target.removeVirtualNode(virtualNode);
+            this.virtualNodes.remove(node.getPos());
+        }
+
+        for (var linkPos : node.linkedMembers()) {
+            var neighborNetwork = this.networkAt(linkPos);
+            if (neighborNetwork == null) continue;
+
+            target = target == null ? neighborNetwork : this.merge(target, neighborNetwork);
+        }
+
+        if (target == null) target = new FluxNetwork();
+
+        this.networks.add(target);
+        target.addNode(node);
+    }
+
+    /**
+     * Replace the given node, whose chunk is being unloaded, with a virtual
+     * node in its network. Contrary to {@link #leave(AethumFluxNodeBlockEntity)},
+     * this does not split the network
+     */
+    public void unload(AethumFluxNodeBlockEntity node) {
+        var network = node.network();
+        if (network == null) return;
+
+        var virtualNode = VirtualFluxNode.of(node);
+        this.virtualNodes.put(virtualNode.pos(), virtualNode);
+
+        network.removeNode(node);
+        network.addVirtualNode(virtualNode);
+
+        if (network.isEmpty()) this.networks.remove(network);
+    }
+
+    /**
+     * Remove the given node from its network and split
+     * the remaining nodes into their connected components
+     */
+    public void leave(AethumFluxNodeBlockEntity node) {
+        var virtualNode = this.virtualNodes.remove(node.getPos());
+        if (virtualNode != null && virtualNode.network() != null) virtualNode.network().removeVirtualNode(virtualNode);
+
+        var network = node.network();
+        if (network == null) return;
+
+        network.removeNode(node);
+        this.repartition(network);
+    }
+
+    /**
+     * Called after a link between the two given nodes
+     * was established, merges their networks
+     */
+    public void onNodesLinked(AethumFluxNodeBlockEntity first, AethumFluxNodeBlockEntity second) {
+        if (first.network() == null || second.network() == null) return;
+        this.merge(first.network(), second.network());
+    }
+
+    /**
+     * Called after a link between the two given nodes
+     * was removed, splits their network if required
+     */
+    public void onNodesUnlinked(AethumFluxNodeBlockEntity first, AethumFluxNodeBlockEntity second) {
+        if (first.network() == null || first.network() != second.network()) return;
+        this.repartition(first.network());
+    }
+
+    public Collection<FluxNetwork> networks() {
+        return Collections.unmodifiableCollection(this.networks);
+    }
+
+    /**
+     * @return The amount of nodes in unloaded chunks which
+     * are currently represented by virtual nodes
+     */
+    public int virtualNodeCount() {
+        return this.virtualNodes.size();
+    }
+
+    // ---------------
+    // Virtual members
+    // ---------------
+
+    /**
+     * Remember the state of the given member, whose chunk is being unloaded,
+     * so that networks can keep transferring flux to and from it
+     */
+    public void unloadMember(BlockPos pos, AethumNetworkMember member) {
+        var previous = this.virtualMembers.get(pos);
+        this.virtualMembers.put(pos.toImmutable(), VirtualFluxMember.of(pos, member, previous != null ? previous.pendingFlux() : 0, this.world.getTime()));
+    }
+
+    /**
+     * @return The virtual member standing in for the
+     * unloaded member at {@code pos}, if there is one
+     */
+    public @Nullable VirtualFluxMember virtualMember(BlockPos pos) {
+        return this.virtualMembers.get(pos);
+    }
+
+    /**
+     * Apply all flux that was transferred to the virtual representation
+     * of the given member while it was unloaded and drop that representation
+     */
+    public void restoreMember(BlockPos pos, AethumNetworkMember member) {
+        if (this.virtualMembers.isEmpty()) return;
+
+        var virtualMember = this.virtualMembers.remove(pos);
+        if (virtualMember == null || virtualMember.pendingFlux() == 0) return;
+
+        member.updateFlux(Math.max(0, member.flux() + virtualMember.pendingFlux()));
+    }
+
+    /**
+     * Drop the virtual representation of the member at the given
+     * position without applying it, called when the member is broken
+     */
+    public void forgetMember(BlockPos pos) {
+        this.virtualMembers.remove(pos);
+    }
+
+    /**
+     * Drop all virtual nodes and members which expired or can never be restored
+     * because their chunk is loaded without the node or member in it, for instance
+     * because the block was replaced without being broken
+     */
+    private void expireVirtualRecords() {
+        final long time = this.world.getTime();
+
+        var nodeIter = this.virtualNodes.values().iterator();
+        while (nodeIter.hasNext()) {
+            var virtualNode = nodeIter.next();
+            if (time - virtualNode.unloadTime() < VIRTUAL_RECORD_EXPIRY_TICKS && !this.isAbandoned(virtualNode.pos(), true)) continue;
+
+            nodeIter.remove();
+
+            var network = virtualNode.network();
+            if (network == null) continue;
+
+            network.removeVirtualNode(virtualNode);
+            this.repartition(network);
+        }
+
+        this.virtualMembers.values().removeIf(virtualMember -> time - virtualMember.unloadTime() >= VIRTUAL_RECORD_EXPIRY_TICKS || this.isAbandoned(virtualMember.pos(), false));
+    }
+
+    private boolean isAbandoned(BlockPos pos, boolean node) {
+        if (!this.world.isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) return false;
+
+        return node
+                ? !(this.world.getBlockEntity(pos) instanceof AethumFluxNodeBlockEntity)
+                : Affinity.AETHUM_MEMBER.find(this.world, pos, null) == null;
+    }
+
+    /**
+     * @return The amount of ticks in which the flux network tick
+     * budget of this world ran out and networks had to be deferred
+     */
+    public long budgetOverruns() {
+        return this.budgetOverruns;
+    }
+
+    /**
+     * @return The amount of networks in this world which are currently dormant
+     */
+    public int dormantNetworkCount() {
+        int dormant = 0;
+        for (var network : this.networks) {
+            if (network.isDormant()) dormant++;
+        }
+
+        return dormant;
+    }
+
+    private FluxNetwork merge(FluxNetwork first, FluxNetwork second) {
+        if (first == second) return first;
+
+        var larger = first.size() + first.virtualNodeCount() >= second.size() + second.virtualNodeCount() ? first : second;
+        var smaller = larger == first ? second : first;
+
+        larger.absorb(smaller);
+        this.networks.remove(smaller);
+
+        return larger;
+    }
+
+    private void repartition(FluxNetwork network) {
+        for (var splitOff : network.partition()) {
+            if (!splitOff.isEmpty()) this.networks.add(splitOff);
+        }
+
+        if (network.isEmpty()) this.networks.remove(network);
+    }
+
+    /**
+     * @return The network of the node at the given position, which may
+     * be virtual if the node is currently unloaded
+     */
+    private @Nullable FluxNetwork networkAt(BlockPos pos) {
+        if (!this.world.isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) {
+            var virtualNode = this.virtualNodes.get(pos);
+            return virtualNode != null ? this.virtualNetworkOf(virtualNode) : null;
+        }
+
+        return this.world.getBlockEntity(pos) instanceof AethumFluxNodeBlockEntity node ? node.network() : null;
+    }
+
+    /**
+     * @return The network of the given virtual node. Virtual nodes read from disk
+     * are not part of any network, so in that case one is rebuilt from all virtual
+     * nodes reachable from this one
+     */
+    private FluxNetwork virtualNetworkOf(VirtualFluxNode virtualNode) {
+        if (virtualNode.network() != null) return virtualNode.network();
+
+        var network = new FluxNetwork();
+        network.addVirtualNode(virtualNode);
+
+        var queue = new ArrayDeque<VirtualFluxNode>();
+        queue.add(virtualNode);
+
+        while (!queue.isEmpty()) {
+            for (var linkPos : queue.poll().links()) {
+                var neighbor = this.virtualNodes.get(linkPos);
+                if (neighbor == null || neighbor.network() != null) continue;
+
+                network.addVirtualNode(neighbor);
+                queue.add(neighbor);
+            }
+        }
+
+        return network;
+    }
+
+    @Override
+    public void serverTick() {
+        if (this.world.getTime() % VIRTUAL_RECORD_CHECK_INTERVAL == 0 && !(this.virtualNodes.isEmpty() && this.virtualMembers.isEmpty())) {
+            this.expireVirtualRecords();
+        }
+
+        this.collectTickingNetworks();
+        this.admitTickingNetworks(Affinity.config().fluxNetworkTickBudget() * 1000L);
+
+        int parallelism = Affinity.config().fluxNetworkSolverThreads();
+        if (parallelism <= 1 || this.tickingNetworks.size() < 2) {
+            for (var network : this.tickingNetworks) {
+                network.tick();
+            }
+
+            return;
+        }
+
+        int totalMembers = 0;
+        for (var network : this.tickingNetworks) {
+            network.snapshot();
+            totalMembers += network.memberCount();
+        }
+
+        if (totalMembers < Affinity.config().parallelFluxSolverThreshold()) {
+            for (var network : this.tickingNetworks) {
+                network.solve();
+            }
+        } else {
+            solverPool(parallelism).submit(() -> this.tickingNetworks.parallelStream().forEach(FluxNetwork::solve)).join();
+        }
+
+        for (var network : this.tickingNetworks) {
+            network.apply();
+        }
+    }
+
+    /**
+     * Collect all networks which need to tick, networks
+     * deferred during the last tick go first
+     */
+    private void collectTickingNetworks() {
+        int recheckInterval = Affinity.config().dormantFluxNetworkRecheckInterval();
+
+        this.tickingNetworks.clear();
+        for (var network : this.networks) {
+            if (network.isDeferred()) this.tickingNetworks.add(network);
+        }
+
+        for (var network : this.networks) {
+            if (!network.isDeferred() && network.shouldTick(recheckInterval)) this.tickingNetworks.add(network);
+        }
+    }
+
+    /**
+     * Defer all ticking networks which do not fit into the tick budget of
+     * {@code budget} nanoseconds, judging by what each of them cost when it last
+     * ticked. This applies to the entire tick, including the parallel solve
+     * <p>
+     * A network which alone costs more than the budget is only ticked every
+     * {@link #oversizedTickInterval(long, long)} ticks, catching up on the skipped
+     * ones, and takes up the rest of the budget of the tick it runs in
+     */
+    private void admitTickingNetworks(long budget) {
+        if (budget <= 0) return;
+
+        long spent = 0;
+        boolean overrun = false;
+
+        var iter = this.tickingNetworks.iterator();
+        while (iter.hasNext()) {
+            var network = iter.next();
+            long cost = network.lastTickCost();
+
+            boolean admitted = cost > budget
+                    ? network.deferredTicks() + 1 >= oversizedTickInterval(cost, budget)
+                    : spent + cost <= budget;
+
+            if (admitted) {
+                spent += cost;
+                continue;
+            }
+
+            network.defer();
+            iter.remove();
+            overrun = true;
+        }
+
+        if (overrun) this.budgetOverruns++;
+    }
+
+    /**
+     * @return Every how many ticks a network costing {@code cost} nanoseconds, more
+     * than the entire budget, is ticked - such that it takes at most half of the
+     * budget on average, leaving the rest to other networks. Capped at
+     * {@link FluxNetwork#MAX_CATCH_UP_TICKS}, since it could not catch up on more
+     */
+    private static int oversizedTickInterval(long cost, long budget) {
+        return (int) Math.min(FluxNetwork.MAX_CATCH_UP_TICKS, (cost * 2 + budget - 1) / budget);
+    }
+
+    private static ForkJoinPool solverPool(int parallelism) {
+        if (solverPool == null) {
+            solverPool = new ForkJoinPool(parallelism, pool -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Affinity Flux Solver #" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+
+        return solverPool;
+    }
+
+    @Override
+    public void readFromNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registries) {
+        this.virtualNodes.clear();
+        for (var virtualNode : tag.get(VIRTUAL_NODES)) {
+            this.virtualNodes.put(virtualNode.pos(), virtualNode);
+        }
+
+        this.virtualMembers.clear();
+        for (var virtualMember : tag.get(VIRTUAL_MEMBERS)) {
+            this.virtualMembers.put(virtualMember.pos(), virtualMember);
+        }
+    }
+
+    @Override
+    public void writeToNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registries) {
+        tag.put(VIRTUAL_NODES, new ArrayList<>(this.virtualNodes.values()));
+        tag.put(VIRTUAL_MEMBERS, new ArrayList<>(this.virtualMembers.values()));
+    }
+
+    static {
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, world) -> {
+            if (!(blockEntity instanceof AethumNetworkMemberBlockEntity member) || member instanceof AethumNetworkNode) return;
+
+            var networks = world.getComponent(AffinityComponents.FLUX_NETWORKS);
+            if (networks.virtualMember(member.getPos()) == null) return;
+
+            // The chunk is still being loaded at this point, apply the pending flux once it is done
+            ServerTasks.doNext(server -> {
+                if (!member.isRemoved()) networks.restoreMember(member.getPos(), member);
+            });
+        });
+    }
+}
@@ -17,7 +17,7 @@ import java.util.Optional;
 public class BreakAethumFluxCacheCriterion extends AbstractCriterion<BreakAethumFluxCacheCriterion.Conditions> {
 
     public void trigger(ServerPlayerEntity player, AethumFluxCacheBlockEntity cache) {
-        this.trigger(player, conditions -> conditions.aethum.test((int) cache.flux()) && conditions.aethumPercentage.test(cache.flux() / (double) cache.fluxCapacity()));
+        this.trigger(player, conditions -> conditions.aethum.test((int) cache.blockFlux()) && conditions.aethumPercentage.test(cache.blockFlux() / (double) AethumFluxCacheBlockEntity.FLUX_PER_CACHE));
     }
 
     @Override
@@ -1,7 +1,7 @@
 package io.wispforest.affinity.item;
 
 import io.wispforest.affinity.Affinity;
-import io.wispforest.affinity.misc.AethumAcquisitionCache;
+import io.wispforest.affinity.misc.AethumMapRenderer;
 import io.wispforest.affinity.mixin.access.MapStateAccessor;
 import io.wispforest.endec.Endec;
 import io.wispforest.owo.itemgroup.OwoItemSettings;
@@ -19,7 +19,6 @@ import net.minecraft.screen.slot.Slot;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.ClickType;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 
@@ -70,26 +69,7 @@ public class RealizedAethumMapItem extends FilledMapItem {
         if (withinMapArea && world.getTime() % 50 != 0) return;
         if (!withinMapArea) realign(state, (int) entityX, (int) entityZ);
 
-        final var cache = AethumAcquisitionCache.create(world,
-                (state.centerX - 64) >> 4, (state.centerZ - 64) >> 4, 8 + 1);
-
-        for (int x = 0; x < 128; x += 2) {
-            for (int z = 0; z < 128; z += 2) {
-                final var pos = new BlockPos(state.centerX - 64 + x, 0, state.centerZ - 64 + z);
-                final var component = cache.getComponentFrom(pos.getX() >> 4, pos.getZ() >> 4);
-
-                final byte color = component == null ? COLORS[0] :
-                        COLORS[MathHelper.clamp(
-                                (int) Math.round((component.fastAethumAt(cache, pos.getX(), pos.getZ()) - 30) / 50 * 15),
-                                0,
-                                15
-                        )];
-
-                for (int i = 0; i < 4; i++) {
-                    state.putColor(x + i % 2, z + i / 2, color);
-                }
-            }
-        }
+        AethumMapRenderer.render(world, state, COLORS);
     }
 
     @Override
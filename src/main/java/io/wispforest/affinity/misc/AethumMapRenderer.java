@@ -0,0 +1,110 @@
+package io.wispforest.affinity.misc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.wispforest.affinity.Affinity;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.item.map.MapState;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders realized aethum maps off the server thread. The server thread only captures
+ * the adjusted aethum of the chunks around the map into an {@link AethumAcquisitionCache},
+ * a worker then interpolates the colors and the result is applied back on the server
+ * thread. Maps covering the same area while a render is in flight share its result
+ */
+public class AethumMapRenderer {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("Affinity Aethum Map Renderer %d").setDaemon(true).build()
+    );
+
+    private static final Map<Area, List<MapState>> IN_FLIGHT = new HashMap<>();
+
+    /**
+     * Schedule a render of the area {@code state} currently covers. If that
+     * area is already being rendered, {@code state} receives the result of
+     * that render instead. If {@code aethumMapRenderConcurrency} renders are
+     * already in flight, nothing happens and the map keeps its old colors until
+     * the next update
+     */
+    public static void render(World world, MapState state, byte[] palette) {
+        var server = world.getServer();
+        if (server == null) return;
+
+        var area = new Area(world.getRegistryKey(), state.centerX, state.centerZ);
+
+        var targets = IN_FLIGHT.get(area);
+        if (targets != null) {
+            if (!targets.contains(state)) targets.add(state);
+            return;
+        }
+
+        if (IN_FLIGHT.size() >= Affinity.config().aethumMapRenderConcurrency()) return;
+
+        targets = new ArrayList<>();
+        targets.add(state);
+        IN_FLIGHT.put(area, targets);
+
+        final var cache = AethumAcquisitionCache.create(world, (area.centerX - 64) >> 4, (area.centerZ - 64) >> 4, 8 + 1);
+
+        CompletableFuture.supplyAsync(() -> computeColors(cache, area, palette), EXECUTOR).whenComplete((colors, throwable) -> server.execute(() -> {
+            var finishedTargets = IN_FLIGHT.remove(area);
+            if (finishedTargets == null) return;
+
+            if (throwable != null) {
+                Affinity.LOGGER.error("Failed to render aethum map", throwable);
+                return;
+            }
+
+            for (var target : finishedTargets) {
+                if (target.centerX != area.centerX || target.centerZ != area.centerZ) continue;
+
+                for (int x = 0; x < 128; x++) {
+                    for (int z = 0; z < 128; z++) {
+                        target.putColor(x, z, colors[x * 128 + z]);
+                    }
+                }
+            }
+        }));
+    }
+
+    private static byte[] computeColors(AethumAcquisitionCache cache, Area area, byte[] palette) {
+        var colors = new byte[128 * 128];
+
+        for (int x = 0; x < 128; x += 2) {
+            for (int z = 0; z < 128; z += 2) {
+                final int blockX = area.centerX - 64 + x, blockZ = area.centerZ - 64 + z;
+                final var component = cache.getComponentFrom(blockX >> 4, blockZ >> 4);
+
+                final byte color = component == null ? palette[0] :
+                        palette[MathHelper.clamp(
+                                (int) Math.round((component.fastAethumAt(cache, blockX, blockZ) - 30) / 50 * 15),
+                                0,
+                                15
+                        )];
+
+                for (int i = 0; i < 4; i++) {
+                    colors[(x + i % 2) * 128 + z + i / 2] = color;
+                }
+            }
+        }
+
+        return colors;
+    }
+
+    private record Area(RegistryKey<World> world, int centerX, int centerZ) {}
+
+    static {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> IN_FLIGHT.clear());
+    }
+}
@@ -36,13 +36,21 @@ public class AffinityCommands {
         CommandRegistrationCallback.EVENT.register((dispatcher, access, environment) -> {
             dispatcher.register(literal("aethum").requires(source -> source.hasPermissionLevel(2))
                 .then(literal("world")
+                    .then(literal("cancel_dump").requires(source -> source.hasPermissionLevel(3)).executes(AffinityCommands::cancelWorldAethumDump))
                     .then(argument("position", BlockPosArgumentType.blockPos())
                         .then(literal("get").executes(AffinityCommands::getWorldAethum))
                         .then(literal("dump").requires(source -> source.hasPermissionLevel(3))
                             .then(argument("radius", IntegerArgumentType.integer()).executes(AffinityCommands::dumpWorldAethum)
                                 .then(argument("lower_bound", IntegerArgumentType.integer())
                                     .then(argument("range", IntegerArgumentType.integer())
-                                        .executes(AffinityCommands::dumpWorldAethumBounded)))))))
+                                        .executes(AffinityCommands::dumpWorldAethumBounded))))
+                        .then(literal("stream").requires(source -> source.hasPermissionLevel(3))
+                            .then(argument("radius", IntegerArgumentType.integer(0, WorldAethumDump.MAX_RADIUS))
+                                .then(literal("png").executes(context -> startWorldAethumDump(context, WorldAethumDump.Format.PNG, 0, 100))
+                                    .then(argument("lower_bound", IntegerArgumentType.integer())
+                                        .then(argument("range", IntegerArgumentType.integer(1))
+                                            .executes(AffinityCommands::startWorldAethumDumpBounded))))
+                                .then(literal("raw").executes(context -> startWorldAethumDump(context, WorldAethumDump.Format.RAW, 0, 100)))))))
                 .then(literal("chunk")
                     .then(argument("chunk", BlockPosArgumentType.blockPos())
                         .then(literal("get").executes(AffinityCommands::getChunkAethum))
@@ -58,10 +66,27 @@ public class AffinityCommands {
                     .then(argument("position", BlockPosArgumentType.blockPos())
                         .then(literal("get").executes(AffinityCommands::getAethumFluxAt))
                         .then(literal("set")
-                            .then(argument("flux", LongArgumentType.longArg(0)).executes(AffinityCommands::setAethumFluxAt))))));
+                            .then(argument("flux", LongArgumentType.longArg(0)).executes(AffinityCommands::setAethumFluxAt))))
+                    .then(literal("networks").executes(AffinityCommands::getFluxNetworkStats))));
         });
     }
 
+    private static int getFluxNetworkStats(CommandContext<ServerCommandSource> context) {
+        final var networks = context.getSource().getWorld().getComponent(AffinityComponents.FLUX_NETWORKS);
+
+        final int networkCount = networks.networks().size();
+        final int dormantCount = networks.dormantNetworkCount();
+        final long budgetOverruns = networks.budgetOverruns();
+        final int virtualNodeCount = networks.virtualNodeCount();
+
+        context.getSource().sendFeedback(() -> valueFeedback("flux networks", networkCount), false);
+        context.getSource().sendFeedback(() -> valueFeedback("dormant flux networks", dormantCount), false);
+        context.getSource().sendFeedback(() -> valueFeedback("flux tick budget overruns", budgetOverruns), false);
+        context.getSource().sendFeedback(() -> valueFeedback("unloaded flux nodes", virtualNodeCount), false);
+
+        return dormantCount;
+    }
+
     private static int setAethumFluxAt(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         BlockPos pos = BlockPosArgumentType.getLoadedBlockPos(context, "position");
         long flux = LongArgumentType.getLong(context, "flux");
@@ -172,6 +197,35 @@ public class AffinityCommands {
         return 0;
     }
 
+    private static int startWorldAethumDumpBounded(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        return startWorldAethumDump(context, WorldAethumDump.Format.PNG, IntegerArgumentType.getInteger(context, "lower_bound"), IntegerArgumentType.getInteger(context, "range"));
+    }
+
+    private static int startWorldAethumDump(CommandContext<ServerCommandSource> context, WorldAethumDump.Format format, int lowerBound, int range) throws CommandSyntaxException {
+        final var center = BlockPosArgumentType.getBlockPos(context, "position");
+        final int radius = IntegerArgumentType.getInteger(context, "radius");
+        final var source = context.getSource();
+
+        final var dumpFile = FabricLoader.getInstance().getGameDir().resolve("aethum_dump." + format.extension);
+        if (!WorldAethumDump.start(source.getWorld(), center, radius, format, lowerBound, range, dumpFile, message -> source.sendFeedback(() -> simpleFeedback(message), false))) {
+            source.sendError(Text.of("An aethum dump is already running"));
+            return 0;
+        }
+
+        source.sendFeedback(() -> simpleFeedback("aethum dump started"), true);
+        return 1;
+    }
+
+    private static int cancelWorldAethumDump(CommandContext<ServerCommandSource> context) {
+        if (!WorldAethumDump.cancel()) {
+            context.getSource().sendError(Text.of("No aethum dump is running"));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(() -> simpleFeedback("cancelling aethum dump"), true);
+        return 1;
+    }
+
     private static int getPlayerAethum(CommandContext<ServerCommandSource> context) {
         final double playerAethum = context.getSource().getPlayer().getComponent(AffinityComponents.PLAYER_AETHUM).getAethum();
         context.getSource().sendFeedback(() -> valueFeedback("player aethum", playerAethum), true);
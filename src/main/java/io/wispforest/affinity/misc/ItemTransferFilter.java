@@ -0,0 +1,119 @@
+package io.wispforest.affinity.misc;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.minecraft.component.ComponentChanges;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.tag.TagKey;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * The filter configuration of an item transfer node, compiled into a predicate
+ * whenever it changes. Tag filters are resolved into the set of items in the tag,
+ * which is recomputed once tags are reloaded, and the verdicts for the most recently
+ * tested variants are cached
+ */
+public final class ItemTransferFilter {
+
+    public static final ItemTransferFilter ACCEPT_ALL = new ItemTransferFilter(null, null, null, false, false);
+
+    private static final int MAX_CACHED_VERDICTS = 64;
+    private static int tagGeneration = 0;
+
+    private final @Nullable Item item;
+    private final @Nullable Set<Item> tagItems;
+    private final @Nullable ComponentChanges components;
+    private final boolean ignoreDamage;
+    private final boolean invert;
+
+    private final int generation = tagGeneration;
+    private final Map<ItemVariant, Boolean> verdicts = new LinkedHashMap<>(16, .75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ItemVariant, Boolean> eldest) {
+            return this.size() > MAX_CACHED_VERDICTS;
+        }
+    };
+
+    private ItemTransferFilter(@Nullable Item item, @Nullable Set<Item> tagItems, @Nullable ComponentChanges components, boolean ignoreDamage, boolean invert) {
+        this.item = item;
+        this.tagItems = tagItems;
+        this.components = components;
+        this.ignoreDamage = ignoreDamage;
+        this.invert = invert;
+    }
+
+    public static ItemTransferFilter compile(ItemStack filterStack, @Nullable TagKey<Item> filterTag, boolean ignoreDamage, boolean ignoreData, boolean invert) {
+        if (filterStack.isEmpty()) return ACCEPT_ALL;
+
+        Set<Item> tagItems = filterTag != null
+                ? StreamSupport.stream(Registries.ITEM.iterateEntries(filterTag).spliterator(), false).map(entry -> entry.value()).collect(Collectors.toUnmodifiableSet())
+                : null;
+
+        ComponentChanges components = null;
+        if (!ignoreData) {
+            components = filterStack.getComponentChanges();
+            if (ignoreDamage) components = withoutDamage(components);
+        }
+
+        return new ItemTransferFilter(filterTag == null ? filterStack.getItem() : null, tagItems, components, ignoreDamage, invert);
+    }
+
+    public boolean test(ItemVariant variant) {
+        if (this == ACCEPT_ALL) return true;
+
+        var verdict = this.verdicts.get(variant);
+        if (verdict == null) {
+            verdict = this.invert != this.matches(variant);
+            this.verdicts.put(variant, verdict);
+        }
+
+        return verdict;
+    }
+
+    /**
+     * @return A counter which is incremented every time tags are
+     * reloaded, for caching anything derived from filter verdicts
+     */
+    public static int tagGeneration() {
+        return tagGeneration;
+    }
+
+    /**
+     * @return {@code true} if tags were reloaded since this
+     * filter was compiled, in which case it must be compiled again
+     */
+    public boolean isOutdated() {
+        return this.tagItems != null && this.generation != tagGeneration;
+    }
+
+    private boolean matches(ItemVariant variant) {
+        if (this.tagItems != null) {
+            if (!this.tagItems.contains(variant.getItem())) return false;
+        } else {
+            if (this.item != variant.getItem()) return false;
+        }
+
+        if (this.components == null) return true;
+
+        return this.ignoreDamage
+                ? this.components.equals(withoutDamage(variant.getComponents()))
+                : variant.componentsMatch(this.components);
+    }
+
+    private static ComponentChanges withoutDamage(ComponentChanges changes) {
+        return changes.withRemovedIf(type -> type == DataComponentTypes.DAMAGE);
+    }
+
+    static {
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> tagGeneration++);
+    }
+}
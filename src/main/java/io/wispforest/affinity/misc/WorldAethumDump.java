@@ -0,0 +1,441 @@
+package io.wispforest.affinity.misc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.wispforest.affinity.Affinity;
+import io.wispforest.affinity.component.AffinityComponents;
+import io.wispforest.affinity.component.ChunkAethumComponent;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Dumps the interpolated world aethum of a square area to disk in the background. Chunk aethum
+ * is read in strips of {@link #STRIP_CHUNKS} chunks. Each strip is then interpolated one row of
+ * chunks at a time, split along X into tiles of {@link #TILE_CHUNKS} chunks that run on a worker
+ * pool, and every row is streamed to the output file before the next one begins - so only
+ * 16 rows of columns are ever held in memory, no matter how large the area is.
+ * <p>
+ * Chunk aethum is read from loaded chunks on the server thread and from region storage
+ * for all others - chunks are never loaded or generated for a dump. Columns in chunks which
+ * have never been generated are written as {@code 0} in PNG dumps and {@code NaN} in raw dumps
+ */
+public class WorldAethumDump {
+
+    public static final int MAX_RADIUS = 1 << 15;
+
+    private static final int STRIP_CHUNKS = 16;
+    private static final int TILE_CHUNKS = 4;
+    private static final int MARGIN_CHUNKS = 3;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static @Nullable WorldAethumDump running = null;
+
+    private final ServerWorld world;
+    private final BlockPos center;
+    private final int radius;
+    private final Format format;
+    private final double lowerBound, range;
+    private final Path file;
+    private final Consumer<String> progressListener;
+
+    private volatile boolean cancelled = false;
+
+    private WorldAethumDump(ServerWorld world, BlockPos center, int radius, Format format, double lowerBound, double range, Path file, Consumer<String> progressListener) {
+        this.world = world;
+        this.center = center;
+        this.radius = radius;
+        this.format = format;
+        this.lowerBound = lowerBound;
+        this.range = range;
+        this.file = file;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Start dumping the given area in the background. {@code progressListener} is always
+     * invoked on the server thread
+     *
+     * @return {@code false} if another dump is already running
+     * @throws IllegalArgumentException If {@code radius} is negative or exceeds {@link #MAX_RADIUS}
+     */
+    public static boolean start(ServerWorld world, BlockPos center, int radius, Format format, double lowerBound, double range, Path file, Consumer<String> progressListener) {
+        if (radius < 0 || radius > MAX_RADIUS) throw new IllegalArgumentException("Dump radius must be within [0, " + MAX_RADIUS + "]: " + radius);
+        if (running != null) return false;
+
+        var dump = running = new WorldAethumDump(world, center, radius, format, lowerBound, range, file, progressListener);
+        new ThreadFactoryBuilder().setNameFormat("Affinity Aethum Dump").setDaemon(true).build().newThread(dump::run).start();
+
+        return true;
+    }
+
+    /**
+     * @return {@code false} if no dump was running
+     */
+    public static boolean cancel() {
+        if (running == null) return false;
+
+        running.cancelled = true;
+        return true;
+    }
+
+    private void run() {
+        try {
+            this.dump();
+        } finally {
+            this.world.getServer().execute(() -> {
+                if (running == this) running = null;
+            });
+        }
+    }
+
+    private void dump() {
+        final int size = this.radius * 2 + 1;
+        final int minX = this.center.getX() - this.radius, minZ = this.center.getZ() - this.radius;
+        final int maxX = minX + size - 1, maxZ = minZ + size - 1;
+
+        final int minChunkX = minX >> 4, maxChunkX = maxX >> 4;
+        final int minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
+        final int strips = MathHelper.ceilDiv(maxChunkZ - minChunkZ + 1, STRIP_CHUNKS);
+
+        final var workers = Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                new ThreadFactoryBuilder().setNameFormat("Affinity Aethum Dump Worker %d").setDaemon(true).build()
+        );
+
+        final var values = new float[size * 16];
+
+        boolean completed = false;
+        try (var out = this.format.open(this.file, size)) {
+            for (int strip = 0; strip < strips && !this.cancelled; strip++) {
+                int stripMinChunkZ = minChunkZ + strip * STRIP_CHUNKS;
+                int stripMaxChunkZ = Math.min(maxChunkZ, stripMinChunkZ + STRIP_CHUNKS - 1);
+
+                var chunkAethum = this.readChunkAethum(
+                        minChunkX - MARGIN_CHUNKS, stripMinChunkZ - MARGIN_CHUNKS,
+                        maxChunkX + MARGIN_CHUNKS, stripMaxChunkZ + MARGIN_CHUNKS
+                );
+
+                for (int chunkZ = stripMinChunkZ; chunkZ <= stripMaxChunkZ && !this.cancelled; chunkZ++) {
+                    int rowMinZ = Math.max(minZ, chunkZ << 4), rowMaxZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+                    this.computeChunkRow(workers, chunkAethum, values, minX, size, chunkZ, rowMinZ, rowMaxZ);
+                    if (this.cancelled) break;
+
+                    out.writeRows(values, size, rowMaxZ - rowMinZ + 1);
+                }
+
+                int percent = (strip + 1) * 100 / strips;
+                this.report("aethum dump " + percent + "% complete");
+            }
+
+            completed = !this.cancelled;
+        } catch (Exception e) {
+            Affinity.LOGGER.error("Failed to dump world aethum", e);
+            this.report("aethum dump failed: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+
+            if (!completed) {
+                try {
+                    Files.deleteIfExists(this.file);
+                } catch (IOException ignored) {}
+            }
+        }
+
+        if (completed) {
+            this.report("aethum dump written to " + this.file.getFileName());
+        } else if (this.cancelled) {
+            this.report("aethum dump cancelled");
+        }
+    }
+
+    /**
+     * Compute the aethum of every column in the row of chunks at {@code chunkZ}, limited to
+     * {@code [rowMinZ, rowMaxZ]} and the dumped width, into {@code values} in row-major order
+     */
+    private void computeChunkRow(ExecutorService workers, ChunkAethumGrid chunkAethum, float[] values, int minX, int width, int chunkZ, int rowMinZ, int rowMaxZ) throws Exception {
+        final int maxX = minX + width - 1;
+        final var tiles = new ArrayList<CompletableFuture<Void>>();
+
+        for (int tileChunkX = minX >> 4; tileChunkX <= maxX >> 4; tileChunkX += TILE_CHUNKS) {
+            final int fromChunkX = tileChunkX, toChunkX = Math.min(maxX >> 4, tileChunkX + TILE_CHUNKS - 1);
+
+            tiles.add(CompletableFuture.runAsync(() -> {
+                if (this.cancelled) return;
+
+                final var samples = new double[25];
+                final var mutable = new BlockPos.Mutable();
+
+                for (int chunkX = fromChunkX; chunkX <= toChunkX; chunkX++) {
+                    final var chunk = new ChunkPos(chunkX, chunkZ);
+                    final boolean present = !Double.isNaN(chunkAethum.get(chunkX, chunkZ));
+
+                    if (present) {
+                        for (int x = -2; x <= 2; x++) {
+                            for (int z = -2; z <= 2; z++) {
+                                samples[(x + 2) * 5 + z + 2] = chunkAethum.adjusted(chunkX + x, chunkZ + z);
+                            }
+                        }
+                    }
+
+                    for (int blockZ = rowMinZ; blockZ <= rowMaxZ; blockZ++) {
+                        for (int blockX = Math.max(minX, chunk.getStartX()); blockX <= Math.min(maxX, chunk.getEndX()); blockX++) {
+                            values[(blockZ - rowMinZ) * width + blockX - minX] = present
+                                    ? (float) ChunkAethumComponent.interpolateAethum(samples, chunk, blockX & 15, blockZ & 15, mutable)
+                                    : Float.NaN;
+                        }
+                    }
+                }
+            }, workers));
+        }
+
+        CompletableFuture.allOf(tiles.toArray(CompletableFuture[]::new)).get();
+    }
+
+    /**
+     * Collect the raw aethum of all chunks in the given area. Loaded chunks are
+     * read on the server thread in one go, everything else comes from region storage
+     */
+    private ChunkAethumGrid readChunkAethum(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) throws Exception {
+        final var grid = new ChunkAethumGrid(minChunkX, minChunkZ, maxChunkX - minChunkX + 1, maxChunkZ - minChunkZ + 1);
+
+        this.world.getServer().submit(() -> {
+            for (int x = minChunkX; x <= maxChunkX; x++) {
+                for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                    var chunk = this.world.getChunkManager().getWorldChunk(x, z);
+                    if (chunk == null) continue;
+
+                    grid.set(x, z, chunk.getComponent(AffinityComponents.CHUNK_AETHUM).getAethum());
+                }
+            }
+        }).get();
+
+        final var storage = this.world.getChunkManager().chunkLoadingManager;
+        for (int x = minChunkX; x <= maxChunkX && !this.cancelled; x++) {
+            for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                if (!Double.isNaN(grid.get(x, z))) continue;
+                grid.set(x, z, storedAethum(storage.getNbt(new ChunkPos(x, z)).get()));
+            }
+        }
+
+        return grid;
+    }
+
+    private static double storedAethum(Optional<NbtCompound> chunkNbt) {
+        if (chunkNbt.isEmpty()) return Double.NaN;
+
+        var components = chunkNbt.get().getCompound("cardinal_components");
+        var componentId = AffinityComponents.CHUNK_AETHUM.getId().toString();
+        if (!components.contains(componentId, NbtElement.COMPOUND_TYPE)) return Double.NaN;
+
+        return components.getCompound(componentId).getDouble("Aethum");
+    }
+
+    private void report(String message) {
+        this.world.getServer().execute(() -> this.progressListener.accept(message));
+    }
+
+    private static class ChunkAethumGrid {
+        private final int minX, minZ, width, height;
+        private final double[] aethum;
+
+        private ChunkAethumGrid(int minX, int minZ, int width, int height) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.width = width;
+            this.height = height;
+
+            this.aethum = new double[width * height];
+            Arrays.fill(this.aethum, Double.NaN);
+        }
+
+        private double get(int x, int z) {
+            x -= this.minX;
+            z -= this.minZ;
+
+            if (x < 0 || z < 0 || x >= this.width || z >= this.height) return Double.NaN;
+            return this.aethum[z * this.width + x];
+        }
+
+        private void set(int x, int z, double aethum) {
+            this.aethum[(z - this.minZ) * this.width + x - this.minX] = aethum;
+        }
+
+        private double adjusted(int x, int z) {
+            double aethum = this.get(x, z);
+            if (Double.isNaN(aethum)) return Double.NaN;
+
+            return ChunkAethumComponent.adjustAethum(aethum, new double[]{
+                    this.get(x, z + 1), this.get(x - 1, z), this.get(x, z - 1), this.get(x + 1, z)
+            });
+        }
+    }
+
+    public enum Format {
+        /**
+         * An 8-bit grayscale PNG, mapping {@code [lowerBound, lowerBound + range]} to {@code [0, 255]}
+         */
+        PNG("png") {
+            @Override
+            DumpWriter open(Path file, int size) throws IOException {
+                return new PngWriter(file, size);
+            }
+        },
+        /**
+         * The side length as a big-endian int, followed by the
+         * aethum of every column as big-endian floats in row-major order
+         */
+        RAW("bin") {
+            @Override
+            DumpWriter open(Path file, int size) throws IOException {
+                var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+                out.writeInt(size);
+
+                return new DumpWriter() {
+                    @Override
+                    public void writeRows(float[] values, int width, int rows) throws IOException {
+                        for (int i = 0; i < width * rows; i++) {
+                            out.writeFloat(values[i]);
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        out.close();
+                    }
+                };
+            }
+        };
+
+        public final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        abstract DumpWriter open(Path file, int size) throws IOException;
+    }
+
+    interface DumpWriter extends AutoCloseable {
+        void writeRows(float[] values, int width, int rows) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * A minimal PNG encoder which deflates rows as they come in and emits
+     * one {@code IDAT} chunk per batch of rows, so the image is never held in memory
+     */
+    private class PngWriter implements DumpWriter {
+
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater();
+        private final byte[] deflateBuffer = new byte[64 * 1024];
+
+        private PngWriter(Path file, int size) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(file));
+            this.out.write(PNG_SIGNATURE);
+
+            var header = new ByteArrayOutputStream();
+            var headerData = new DataOutputStream(header);
+            headerData.writeInt(size);
+            headerData.writeInt(size);
+            headerData.writeByte(8); // bit depth
+            headerData.writeByte(0); // grayscale
+            headerData.writeByte(0); // deflate
+            headerData.writeByte(0); // adaptive filtering
+            headerData.writeByte(0); // no interlace
+
+            this.writeChunk("IHDR", header.toByteArray());
+        }
+
+        @Override
+        public void writeRows(float[] values, int width, int rows) throws IOException {
+            var scanlines = new byte[rows * (width + 1)];
+
+            for (int row = 0; row < rows; row++) {
+                int offset = row * (width + 1);
+                scanlines[offset] = 0; // no filter
+
+                for (int x = 0; x < width; x++) {
+                    float aethum = values[row * width + x];
+                    scanlines[offset + 1 + x] = Float.isNaN(aethum)
+                            ? 0
+                            : (byte) MathHelper.clamp((int) (0xFF * ((aethum - WorldAethumDump.this.lowerBound) / WorldAethumDump.this.range)), 0, 0xFF);
+                }
+            }
+
+            this.deflater.setInput(scanlines);
+            this.writeChunk("IDAT", this.drainDeflater(false));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.deflater.finish();
+                this.writeChunk("IDAT", this.drainDeflater(true));
+                this.writeChunk("IEND", new byte[0]);
+            } finally {
+                this.deflater.end();
+                this.out.close();
+            }
+        }
+
+        private byte[] drainDeflater(boolean finish) {
+            var compressed = new ByteArrayOutputStream();
+
+            while (finish ? !this.deflater.finished() : !this.deflater.needsInput()) {
+                int length = this.deflater.deflate(this.deflateBuffer);
+                compressed.write(this.deflateBuffer, 0, length);
+            }
+
+            return compressed.toByteArray();
+        }
+
+        private void writeChunk(String type, byte[] data) throws IOException {
+            var typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+
+            var crc = new CRC32();
+            crc.update(typeBytes);
+            crc.update(data);
+
+            var dataOut = new DataOutputStream(this.out);
+            dataOut.writeInt(data.length);
+            dataOut.write(typeBytes);
+            dataOut.write(data);
+            dataOut.writeInt((int) crc.getValue());
+        }
+    }
+
+    static {
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            if (running != null) running.cancelled = true;
+            running = null;
+        });
+    }
+}
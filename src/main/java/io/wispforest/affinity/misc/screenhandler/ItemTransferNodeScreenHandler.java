@@ -64,9 +64,7 @@ public class ItemTransferNodeScreenHandler extends ScreenHandler {
         if (this.node == null) {
             this.sendMessage(new RequestFilterConfigurationUpdateMessage(ignoreDamage, ignoreData, invert));
         } else {
-            this.node.ignoreDamage = ignoreDamage;
-            this.node.ignoreData = ignoreData;
-            this.node.invertFilter = invert;
+            this.node.setFilterConfiguration(ignoreDamage, ignoreData, invert);
         }
     }
 
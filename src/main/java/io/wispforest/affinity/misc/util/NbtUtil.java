@@ -1,6 +1,7 @@
 package io.wispforest.affinity.misc.util;
 
 import io.wispforest.affinity.aethumflux.net.AethumLink;
+import io.wispforest.affinity.aethumflux.net.AethumLinkTable;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.item.BlockItem;
@@ -10,11 +11,8 @@ import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.collection.DefaultedList;
-import net.minecraft.util.math.BlockPos;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class NbtUtil {
@@ -44,30 +42,42 @@ public class NbtUtil {
         }
     }
 
-    public static void readLinks(NbtCompound nbt, String key, Map<BlockPos, AethumLink.Type> links) {
+    /**
+     * Read the links written by {@link #writeLinks(NbtCompound, String, AethumLinkTable)} into the given
+     * table. Links stored in the legacy format, a list of compounds holding a {@code Target}
+     * and a {@code Type} each, are read as well
+     */
+    public static void readLinks(NbtCompound nbt, String key, AethumLinkTable links) {
         links.clear();
 
-        for (var element : nbt.getList(key, NbtElement.COMPOUND_TYPE)) {
-            var linkData = (NbtCompound) element;
+        if (nbt.contains(key, NbtElement.LIST_TYPE)) {
+            for (var element : nbt.getList(key, NbtElement.COMPOUND_TYPE)) {
+                var linkData = (NbtCompound) element;
+                links.put(linkData.getLong("Target"), readLinkType(linkData.getByte("Type")));
+            }
 
-            long pos = linkData.getLong("Target");
-            byte type = linkData.getByte("Type");
+            return;
+        }
+
+        var linkData = nbt.getCompound(key);
+        var targets = linkData.getLongArray("Targets");
+        var types = linkData.getByteArray("Types");
 
-            links.put(BlockPos.fromLong(pos), AethumLink.Type.values()[type]);
+        for (int i = 0; i < targets.length; i++) {
+            links.put(targets[i], readLinkType(i < types.length ? types[i] : 0));
         }
     }
 
-    public static void writeLinks(NbtCompound nbt, String key, Map<BlockPos, AethumLink.Type> links) {
-        var members = new NbtList();
+    public static void writeLinks(NbtCompound nbt, String key, AethumLinkTable links) {
+        var linkData = new NbtCompound();
+        linkData.putLongArray("Targets", links.packPositions());
+        linkData.putByteArray("Types", links.packTypes());
 
-        var idx = new AtomicInteger(-1);
-        links.forEach((blockPos, type) -> {
-            var linkData = new NbtCompound();
-            linkData.putLong("Target", blockPos.asLong());
-            linkData.putByte("Type", (byte) type.ordinal());
-            members.add(linkData);
-        });
+        nbt.put(key, linkData);
+    }
 
-        nbt.put(key, members);
+    private static AethumLink.Type readLinkType(byte ordinal) {
+        var types = AethumLink.Type.values();
+        return ordinal >= 0 && ordinal < types.length ? types[ordinal] : AethumLink.Type.NORMAL;
     }
 }
@@ -0,0 +1,100 @@
+package io.wispforest.affinity.misc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bucketed timing wheel which schedules values by the tick they are due
+ * at. Advancing the wheel only visits the buckets of the ticks that passed,
+ * so the cost per tick is proportional to the amount of values due in it rather
+ * than the amount of values scheduled. Values due further in the future than
+ * the wheel is large simply stay in their bucket for another revolution
+ */
+public class TimingWheel<T> {
+
+    private final List<T>[] buckets;
+    private final int mask;
+    private final ToLongFunction<T> dueTick;
+
+    private long lastTick = Long.MIN_VALUE;
+    private int size = 0;
+
+    /**
+     * @param size    The amount of buckets in this wheel, must be a power of two
+     * @param dueTick A function which returns the tick the given value is due at
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int size, ToLongFunction<T> dueTick) {
+        if (Integer.bitCount(size) != 1) throw new IllegalArgumentException("Timing wheel size must be a power of two");
+
+        this.buckets = new List[size];
+        this.mask = size - 1;
+        this.dueTick = dueTick;
+    }
+
+    public void schedule(T value) {
+        int idx = (int) (this.dueTick.applyAsLong(value) & this.mask);
+        if (this.buckets[idx] == null) this.buckets[idx] = new ArrayList<>();
+
+        this.buckets[idx].add(value);
+        this.size++;
+    }
+
+    /**
+     * Pass every value which is due at or before {@code now} to {@code action}
+     * and remove it from this wheel. If the wheel was not advanced for a
+     * while, all ticks that were skipped are caught up on
+     */
+    public void advance(long now, Consumer<T> action) {
+        if (now <= this.lastTick) return;
+
+        long firstTick = this.lastTick == Long.MIN_VALUE || now - this.lastTick > this.buckets.length
+                ? now - this.buckets.length + 1
+                : this.lastTick + 1;
+
+        this.lastTick = now;
+        if (this.size == 0) return;
+
+        for (long tick = firstTick; tick <= now; tick++) {
+            var bucket = this.buckets[(int) (tick & this.mask)];
+            if (bucket == null || bucket.isEmpty()) continue;
+
+            for (int i = 0; i < bucket.size(); i++) {
+                var value = bucket.get(i);
+                if (this.dueTick.applyAsLong(value) > now) continue;
+
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                this.size--;
+                i--;
+
+                action.accept(value);
+            }
+        }
+    }
+
+    public void forEach(Consumer<T> action) {
+        for (var bucket : this.buckets) {
+            if (bucket == null) continue;
+            bucket.forEach(action);
+        }
+    }
+
+    public void clear() {
+        for (var bucket : this.buckets) {
+            if (bucket != null) bucket.clear();
+        }
+
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
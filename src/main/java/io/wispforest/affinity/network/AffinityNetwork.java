@@ -5,6 +5,7 @@ import io.wispforest.affinity.block.template.AttackInteractionReceiver;
 import io.wispforest.affinity.block.template.ScrollInteractionReceiver;
 import io.wispforest.affinity.blockentity.impl.EtherealAethumFluxInjectorBlockEntity;
 import io.wispforest.affinity.blockentity.impl.HolographicStereopticonBlockEntity;
+import io.wispforest.affinity.blockentity.impl.ItemTransferNodeBlockEntity;
 import io.wispforest.affinity.blockentity.impl.VillagerArmatureBlockEntity;
 import io.wispforest.affinity.blockentity.template.AethumNetworkMemberBlockEntity;
 import io.wispforest.affinity.item.StaffItem;
@@ -56,12 +57,15 @@ public class AffinityNetwork {
     public static void initialize() {
         CHANNEL.builder().register(EndecUtil.GLOBAL_POS_ENDEC, GlobalPos.class);
 
-        CHANNEL.registerClientbound(FluxSyncHandler.FluxSyncPacket.class, (message, access) -> {
+        CHANNEL.registerClientbound(FluxSyncHandler.FluxSyncPacket.class, FluxSyncHandler.FluxSyncPacket.ENDEC, (message, access) -> {
             final var chunk = access.runtime().world.getChunk(message.chunk().x, message.chunk().z);
-            message.updates().forEach((pos, flux) -> {
-                if (!(chunk.getBlockEntity(pos) instanceof AethumNetworkMemberBlockEntity member)) return;
-                member.readFluxUpdate(flux);
-            });
+            for (int i = 0; i < message.values().length; i++) {
+                if (!(chunk.getBlockEntity(message.position(i)) instanceof AethumNetworkMemberBlockEntity member)) continue;
+
+                member.readFluxUpdate(message.isAbsolute(i)
+                    ? message.values()[i]
+                    : member.syncedFlux() + message.values()[i]);
+            }
         });
 
         CHANNEL.registerServerbound(ScrollInteractionReceiver.InteractionPacket.class, (message, access) -> {
@@ -101,7 +105,10 @@ public class AffinityNetwork {
         RitualSocleComposerScreenHandler.initNetwork();
         EtherealAethumFluxInjectorBlockEntity.initNetwork();
         VillagerArmatureBlockEntity.initNetwork();
+        ItemTransferNodeBlockEntity.initNetwork();
         StaffItem.initNetwork();
+        FluxTopologyHandler.initialize();
+        ChunkAethumSyncHandler.initialize();
     }
 
     public static void addEndecs(ReflectiveEndecBuilder builder) {
@@ -0,0 +1,201 @@
+package io.wispforest.affinity.network;
+
+import io.wispforest.affinity.Affinity;
+import io.wispforest.affinity.component.AffinityComponents;
+import io.wispforest.affinity.component.ChunkAethumComponent;
+import io.wispforest.endec.Endec;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synchronizes chunk aethum to clients. Instead of syncing the component on every
+ * change, changed chunks are collected and sent every {@code chunkAethumSyncInterval}
+ * ticks as one packet per player, and only if they moved at least
+ * {@code chunkAethumSyncThreshold} away from the value last sent or their active effects
+ * changed - effects are always sent alongside the aethum of a chunk. Values are quantized
+ * to {@link ChunkAethumSyncPacket#QUANTUM}ths, the full-precision value stays on the server
+ * and is only sent as part of a chunk's initial component data
+ */
+public class ChunkAethumSyncHandler {
+
+    private static final Map<RegistryKey<World>, WorldSyncState> SYNC_STATES = new HashMap<>();
+
+    public static void initialize() {
+        AffinityNetwork.CHANNEL.registerClientbound(ChunkAethumSyncPacket.class, ChunkAethumSyncPacket.ENDEC, (message, access) -> {
+            var world = access.runtime().world;
+            if (world == null) return;
+
+            for (int i = 0; i < message.values().length; i++) {
+                var chunkPos = message.chunk(i);
+
+                var chunk = world.getChunk(chunkPos.x, chunkPos.z, ChunkStatus.FULL, false);
+                if (chunk == null) continue;
+
+                chunk.getComponent(AffinityComponents.CHUNK_AETHUM).readAethumUpdate(message.aethum(i), message.effects()[i]);
+            }
+        });
+    }
+
+    public static void queueUpdate(ServerWorld world, ChunkPos pos) {
+        SYNC_STATES.computeIfAbsent(world.getRegistryKey(), $ -> new WorldSyncState()).pending.add(pos.toLong());
+    }
+
+    private static void dispatchUpdatesToClients(ServerWorld world) {
+        final var state = SYNC_STATES.get(world.getRegistryKey());
+        if (state == null || state.pending.isEmpty()) return;
+        if (world.getTime() % Affinity.config().chunkAethumSyncInterval() != 0) return;
+
+        final double threshold = Affinity.config().chunkAethumSyncThreshold();
+        final var batches = new HashMap<ServerPlayerEntity, Batch>();
+
+        var iter = state.pending.iterator();
+        while (iter.hasNext()) {
+            long chunkKey = iter.nextLong();
+            iter.remove();
+
+            var chunkPos = new ChunkPos(chunkKey);
+            var chunk = world.getChunkManager().getWorldChunk(chunkPos.x, chunkPos.z);
+            if (chunk == null) continue;
+
+            var component = chunk.getComponent(AffinityComponents.CHUNK_AETHUM);
+            double aethum = component.getAethum();
+            int effects = component.activeEffectMask();
+
+            if (state.lastSent.containsKey(chunkKey)
+                    && Math.abs(aethum - state.lastSent.get(chunkKey)) < threshold
+                    && state.lastSentEffects.get(chunkKey) == effects) {
+                continue;
+            }
+
+            state.lastSent.put(chunkKey, aethum);
+            state.lastSentEffects.put(chunkKey, effects);
+
+            for (var player : PlayerLookup.tracking(world, chunkPos)) {
+                batches.computeIfAbsent(player, $ -> new Batch(chunkPos)).add(chunkPos, aethum, effects);
+            }
+        }
+
+        batches.forEach((player, batch) -> AffinityNetwork.server(player).send(batch.toPacket()));
+    }
+
+    private static class WorldSyncState {
+        private final LongOpenHashSet pending = new LongOpenHashSet();
+        private final Long2DoubleOpenHashMap lastSent = new Long2DoubleOpenHashMap();
+        private final Long2IntOpenHashMap lastSentEffects = new Long2IntOpenHashMap();
+    }
+
+    private static class Batch {
+        private final ChunkPos origin;
+        private final IntArrayList offsetsX = new IntArrayList();
+        private final IntArrayList offsetsZ = new IntArrayList();
+        private final IntArrayList values = new IntArrayList();
+        private final IntArrayList effects = new IntArrayList();
+
+        private Batch(ChunkPos origin) {
+            this.origin = origin;
+        }
+
+        private void add(ChunkPos chunk, double aethum, int effects) {
+            this.offsetsX.add(chunk.x - this.origin.x);
+            this.offsetsZ.add(chunk.z - this.origin.z);
+            this.values.add(ChunkAethumSyncPacket.quantize(aethum));
+            this.effects.add(effects);
+        }
+
+        private ChunkAethumSyncPacket toPacket() {
+            return new ChunkAethumSyncPacket(this.origin, this.offsetsX.toIntArray(), this.offsetsZ.toIntArray(), this.values.toIntArray(), this.effects.toIntArray());
+        }
+    }
+
+    /**
+     * A batch of chunk aethum updates for one player. Chunks are stored as
+     * offsets relative to {@code origin}, which are written as zig-zag encoded
+     * varints so that nearby chunks take a byte per axis, values as multiples
+     * of {@code 1 / QUANTUM} and active effects as the bitmask produced by
+     * {@link ChunkAethumComponent#activeEffectMask()}
+     */
+    public record ChunkAethumSyncPacket(ChunkPos origin, int[] offsetsX, int[] offsetsZ, int[] values, int[] effects) {
+
+        public static final int QUANTUM = 64;
+
+        public static final Endec<ChunkAethumSyncPacket> ENDEC = Endec.of((ctx, serializer, packet) -> {
+            serializer.writeLong(ctx, packet.origin.toLong());
+            serializer.writeVarInt(ctx, packet.values.length);
+
+            for (int i = 0; i < packet.values.length; i++) {
+                serializer.writeVarInt(ctx, zigZag(packet.offsetsX[i]));
+                serializer.writeVarInt(ctx, zigZag(packet.offsetsZ[i]));
+                serializer.writeVarInt(ctx, packet.values[i]);
+                serializer.writeVarInt(ctx, packet.effects[i]);
+            }
+        }, (ctx, deserializer) -> {
+            var origin = new ChunkPos(deserializer.readLong(ctx));
+
+            int size = deserializer.readVarInt(ctx);
+            var offsetsX = new int[size];
+            var offsetsZ = new int[size];
+            var values = new int[size];
+            var effects = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                offsetsX[i] = unZigZag(deserializer.readVarInt(ctx));
+                offsetsZ[i] = unZigZag(deserializer.readVarInt(ctx));
+                values[i] = deserializer.readVarInt(ctx);
+                effects[i] = deserializer.readVarInt(ctx);
+            }
+
+            return new ChunkAethumSyncPacket(origin, offsetsX, offsetsZ, values, effects);
+        });
+
+        public ChunkPos chunk(int idx) {
+            return new ChunkPos(this.origin.x + this.offsetsX[idx], this.origin.z + this.offsetsZ[idx]);
+        }
+
+        public double aethum(int idx) {
+            return this.values[idx] / (double) QUANTUM;
+        }
+
+        private static int quantize(double aethum) {
+            return (int) Math.round(aethum * QUANTUM);
+        }
+
+        private static int zigZag(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+
+        private static int unZigZag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    static {
+        ServerTickEvents.END_WORLD_TICK.register(ChunkAethumSyncHandler::dispatchUpdatesToClients);
+
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            var state = SYNC_STATES.get(world.getRegistryKey());
+            if (state == null) return;
+
+            long chunkKey = chunk.getPos().toLong();
+            state.pending.remove(chunkKey);
+            state.lastSent.remove(chunkKey);
+            state.lastSentEffects.remove(chunkKey);
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> SYNC_STATES.clear());
+    }
+}
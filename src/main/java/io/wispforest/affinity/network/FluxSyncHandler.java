@@ -1,42 +1,187 @@
 package io.wispforest.affinity.network;
 
+import io.wispforest.affinity.Affinity;
 import io.wispforest.affinity.blockentity.template.AethumNetworkMemberBlockEntity;
+import io.wispforest.endec.Endec;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Synchronizes the flux stored in network members to clients. Updates are
+ * encoded as deltas against the last value broadcast for each member - this
+ * baseline is shared by all players tracking the member and handed to players
+ * who start tracking it through the member's initial chunk data
+ */
 public class FluxSyncHandler {
 
-    private static final Map<RegistryKey<World>, Map<ChunkPos, Map<BlockPos, Long>>> PENDING_UPDATES = new HashMap<>();
+    private static final Map<RegistryKey<World>, WorldSyncState> SYNC_STATES = new HashMap<>();
 
     public static void queueUpdate(AethumNetworkMemberBlockEntity entity) {
-        getPendingForWorld(entity.getWorld()).computeIfAbsent(new ChunkPos(entity.getPos()), chunkPos -> new HashMap<>()).put(entity.getPos(), entity.flux());
+        var state = getStateForWorld(entity.getWorld());
+        state.pending.computeIfAbsent(ChunkPos.toLong(entity.getPos()), chunkPos -> new Long2LongOpenHashMap()).put(entity.getPos().asLong(), entity.flux());
+    }
+
+    /**
+     * @return The value against which the next flux delta for the given
+     * member will be computed. Clients receive this as part of the member's
+     * chunk data so they can apply subsequent deltas
+     */
+    public static long syncBaseline(AethumNetworkMemberBlockEntity entity) {
+        return getStateForWorld(entity.getWorld()).baselines.computeIfAbsent(entity.getPos().asLong(), pos -> entity.flux());
+    }
+
+    /**
+     * Drop all sync state for the given member, called when it is removed
+     */
+    public static void forget(AethumNetworkMemberBlockEntity entity) {
+        var state = SYNC_STATES.get(entity.getWorld().getRegistryKey());
+        if (state == null) return;
+
+        long pos = entity.getPos().asLong();
+        state.baselines.remove(pos);
+        state.lastSyncTicks.remove(pos);
+
+        var pendingForChunk = state.pending.get(ChunkPos.toLong(entity.getPos()));
+        if (pendingForChunk != null) pendingForChunk.remove(pos);
     }
 
     private static void dispatchUpdatesToClients(ServerWorld world) {
-        final var pendingForWorld = getPendingForWorld(world);
-        if (pendingForWorld.isEmpty()) return;
+        final var state = SYNC_STATES.get(world.getRegistryKey());
+        if (state == null || state.pending.isEmpty()) return;
 
-        pendingForWorld.forEach((chunk, updates) -> {
-            AffinityNetwork.CHANNEL.serverHandle(PlayerLookup.tracking(world, chunk)).send(new FluxSyncPacket(chunk, updates));
-        });
-        pendingForWorld.clear();
+        final long time = world.getTime();
+        final int interval = Affinity.config().fluxSyncInterval();
+        final long threshold = Affinity.config().fluxSyncThreshold();
+
+        var chunkIter = state.pending.long2ObjectEntrySet().fastIterator();
+        while (chunkIter.hasNext()) {
+            var chunkEntry = chunkIter.next();
+            var headers = new IntArrayList();
+            var values = new LongArrayList();
+
+            var updateIter = chunkEntry.getValue().long2LongEntrySet().fastIterator();
+            while (updateIter.hasNext()) {
+                var update = updateIter.next();
+
+                long pos = update.getLongKey();
+                long flux = update.getLongValue();
+
+                boolean hasBaseline = state.baselines.containsKey(pos);
+                long baseline = state.baselines.get(pos);
+
+                if (hasBaseline && flux == baseline) {
+                    updateIter.remove();
+                    continue;
+                }
+
+                if (hasBaseline && time - state.lastSyncTicks.get(pos) < interval && Math.abs(flux - baseline) < threshold) {
+                    continue;
+                }
+
+                headers.add(FluxSyncPacket.packHeader(pos, !hasBaseline));
+                values.add(hasBaseline ? flux - baseline : flux);
+
+                state.baselines.put(pos, flux);
+                state.lastSyncTicks.put(pos, time);
+                updateIter.remove();
+            }
+
+            if (!headers.isEmpty()) {
+                var chunk = new ChunkPos(chunkEntry.getLongKey());
+                AffinityNetwork.CHANNEL.serverHandle(PlayerLookup.tracking(world, chunk)).send(new FluxSyncPacket(chunk, headers.toIntArray(), values.toLongArray()));
+            }
+
+            if (chunkEntry.getValue().isEmpty()) chunkIter.remove();
+        }
+    }
+
+    private static WorldSyncState getStateForWorld(World world) {
+        return SYNC_STATES.computeIfAbsent(world.getRegistryKey(), worldRegistryKey -> new WorldSyncState());
     }
 
-    private static Map<ChunkPos, Map<BlockPos, Long>> getPendingForWorld(World world) {
-        return PENDING_UPDATES.computeIfAbsent(world.getRegistryKey(), worldRegistryKey -> new HashMap<>());
+    private static class WorldSyncState {
+        private final Long2ObjectOpenHashMap<Long2LongOpenHashMap> pending = new Long2ObjectOpenHashMap<>();
+        private final Long2LongOpenHashMap baselines = new Long2LongOpenHashMap();
+        private final Long2LongOpenHashMap lastSyncTicks = new Long2LongOpenHashMap();
     }
 
-    public record FluxSyncPacket(ChunkPos chunk, Map<BlockPos, Long> updates) {}
+    /**
+     * A batch of flux updates for members in a single chunk. Each update consists
+     * of a header, which holds the chunk-relative position of the member and whether
+     * the value is absolute, and a value, which is otherwise a delta against the
+     * member's sync baseline
+     */
+    public record FluxSyncPacket(ChunkPos chunk, int[] headers, long[] values) {
+
+        public static final Endec<FluxSyncPacket> ENDEC = Endec.of((ctx, serializer, packet) -> {
+            serializer.writeLong(ctx, packet.chunk.toLong());
+            serializer.writeVarInt(ctx, packet.headers.length);
+
+            for (int i = 0; i < packet.headers.length; i++) {
+                serializer.writeVarInt(ctx, packet.headers[i]);
+                serializer.writeVarLong(ctx, zigZag(packet.values[i]));
+            }
+        }, (ctx, deserializer) -> {
+            var chunk = new ChunkPos(deserializer.readLong(ctx));
+
+            int size = deserializer.readVarInt(ctx);
+            var headers = new int[size];
+            var values = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                headers[i] = deserializer.readVarInt(ctx);
+                values[i] = unZigZag(deserializer.readVarLong(ctx));
+            }
+
+            return new FluxSyncPacket(chunk, headers, values);
+        });
+
+        public BlockPos position(int idx) {
+            int local = this.headers[idx] >>> 1;
+            return new BlockPos(
+                this.chunk.getStartX() + (local & 15),
+                (int) unZigZag(local >>> 8),
+                this.chunk.getStartZ() + ((local >>> 4) & 15)
+            );
+        }
+
+        public boolean isAbsolute(int idx) {
+            return (this.headers[idx] & 1) != 0;
+        }
+
+        private static int packHeader(long pos, boolean absolute) {
+            int local = (int) zigZag(BlockPos.unpackLongY(pos)) << 8
+                | ChunkSectionPos.getLocalCoord(BlockPos.unpackLongZ(pos)) << 4
+                | ChunkSectionPos.getLocalCoord(BlockPos.unpackLongX(pos));
+
+            return local << 1 | (absolute ? 1 : 0);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
 
     static {
         ServerTickEvents.END_WORLD_TICK.register(FluxSyncHandler::dispatchUpdatesToClients);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> SYNC_STATES.clear());
     }
 }
@@ -0,0 +1,393 @@
+package io.wispforest.affinity.network;
+
+import io.wispforest.affinity.Affinity;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkMember;
+import io.wispforest.affinity.aethumflux.net.AethumNetworkNode;
+import io.wispforest.affinity.aethumflux.net.MultiblockAethumNetworkMember;
+import io.wispforest.affinity.client.screen.FluxNetworkVisualizerScreen;
+import io.wispforest.endec.Endec;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds the topology of a flux network to the {@link FluxNetworkVisualizerScreen} of a
+ * player. When the screen opens, the server walks the network once and sends it in chunks,
+ * after which only the links created or destroyed while the screen stays open are sent.
+ * A player can subscribe at most once every {@link #SUBSCRIBE_COOLDOWN} ticks, requests
+ * arriving faster than that are deferred and only the latest one is served
+ */
+public class FluxTopologyHandler {
+
+    private static final int MAX_MEMBERS_PER_PACKET = 1024;
+    private static final double MAX_SUBSCRIBE_DISTANCE = 64;
+    private static final int SUBSCRIBE_COOLDOWN = 20;
+
+    public static final byte NODE_FLAG = 1;
+    public static final byte MULTIBLOCK_CHILD_FLAG = 2;
+
+    private static final Map<UUID, Subscription> SUBSCRIPTIONS = new HashMap<>();
+    private static final Map<UUID, Integer> LAST_SUBSCRIBE_TICK = new HashMap<>();
+    private static final Map<UUID, BlockPos> DEFERRED_SUBSCRIPTIONS = new HashMap<>();
+
+    public static void initialize() {
+        AffinityNetwork.CHANNEL.registerServerbound(SubscribePacket.class, (message, access) -> {
+            var player = access.player();
+            if (!player.getBlockPos().isWithinDistance(message.member(), MAX_SUBSCRIBE_DISTANCE)) return;
+
+            if (onCooldown(player)) {
+                DEFERRED_SUBSCRIPTIONS.put(player.getUuid(), message.member());
+                return;
+            }
+
+            subscribe(player, message.member());
+        });
+
+        AffinityNetwork.CHANNEL.registerServerbound(UnsubscribePacket.class, (message, access) -> {
+            SUBSCRIPTIONS.remove(access.player().getUuid());
+            DEFERRED_SUBSCRIPTIONS.remove(access.player().getUuid());
+        });
+
+        AffinityNetwork.CHANNEL.registerClientbound(TopologyPacket.class, TopologyPacket.ENDEC, (message, access) -> handleTopology(message));
+        AffinityNetwork.CHANNEL.registerClientbound(UnlinkPacket.class, (message, access) -> handleUnlink(message));
+    }
+
+    private static void subscribe(ServerPlayerEntity player, BlockPos root) {
+        LAST_SUBSCRIBE_TICK.put(player.getUuid(), player.getServer().getTicks());
+        DEFERRED_SUBSCRIPTIONS.remove(player.getUuid());
+
+        var subscription = new Subscription(player.getWorld().getRegistryKey(), root.asLong());
+        SUBSCRIPTIONS.put(player.getUuid(), subscription);
+
+        sendMembers(player, subscription, subscription.root, true);
+    }
+
+    private static boolean onCooldown(ServerPlayerEntity player) {
+        var lastSubscribe = LAST_SUBSCRIBE_TICK.get(player.getUuid());
+        return lastSubscribe != null && player.getServer().getTicks() - lastSubscribe < SUBSCRIBE_COOLDOWN;
+    }
+
+    private static void serveDeferredSubscriptions(MinecraftServer server) {
+        if (DEFERRED_SUBSCRIPTIONS.isEmpty()) return;
+
+        var iter = DEFERRED_SUBSCRIPTIONS.entrySet().iterator();
+        while (iter.hasNext()) {
+            var entry = iter.next();
+
+            var player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null) {
+                iter.remove();
+                continue;
+            }
+
+            if (onCooldown(player)) continue;
+            iter.remove();
+
+            if (!player.getBlockPos().isWithinDistance(entry.getValue(), MAX_SUBSCRIBE_DISTANCE)) continue;
+            subscribe(player, entry.getValue());
+        }
+    }
+
+    @Environment(EnvType.CLIENT)
+    private static void handleTopology(TopologyPacket packet) {
+        if (!(MinecraftClient.getInstance().currentScreen instanceof FluxNetworkVisualizerScreen screen)) return;
+        screen.onTopologyReceived(packet);
+    }
+
+    @Environment(EnvType.CLIENT)
+    private static void handleUnlink(UnlinkPacket packet) {
+        if (!(MinecraftClient.getInstance().currentScreen instanceof FluxNetworkVisualizerScreen screen)) return;
+        screen.onUnlinked(packet.first(), packet.second());
+    }
+
+    /**
+     * Called after a link between the two given members was created, sends
+     * the link and all members it made reachable to every subscribed player
+     */
+    public static void onLinked(World world, BlockPos first, BlockPos second) {
+        if (SUBSCRIPTIONS.isEmpty() || world.isClient) return;
+
+        long firstPos = first.asLong(), secondPos = second.asLong();
+        forEachSubscriber(world, firstPos, secondPos, (player, subscription) -> {
+            if (!subscription.members.contains(firstPos)) {
+                sendMembers(player, subscription, firstPos, false);
+            } else if (!subscription.members.contains(secondPos)) {
+                sendMembers(player, subscription, secondPos, false);
+            } else {
+                AffinityNetwork.server(player).send(new TopologyPacket(
+                        false, true,
+                        new long[0], new long[0], new byte[0],
+                        new long[]{firstPos}, new long[]{secondPos}
+                ));
+            }
+        });
+    }
+
+    /**
+     * Called after a link between the two given members was destroyed, forwards this
+     * to every subscribed player. Members which are no longer reachable from the root
+     * of a subscription are forgotten, just like the screen drops them, so that linking
+     * them again sends their part of the network anew
+     */
+    public static void onUnlinked(World world, BlockPos first, BlockPos second) {
+        if (SUBSCRIPTIONS.isEmpty() || world.isClient) return;
+
+        long firstPos = first.asLong(), secondPos = second.asLong();
+        forEachSubscriber(world, firstPos, secondPos, (player, subscription) -> {
+            AffinityNetwork.server(player).send(new UnlinkPacket(firstPos, secondPos));
+            pruneUnreachableMembers(world, subscription);
+        });
+    }
+
+    /**
+     * Walk the members the given subscription knows about, starting at its root, and
+     * forget all members which were not reached. Members in unloaded chunks cannot be
+     * walked through, anything only reachable via them is forgotten as well and resent
+     * should it be linked again
+     */
+    private static void pruneUnreachableMembers(World world, Subscription subscription) {
+        var reachable = new LongOpenHashSet();
+        var queue = new LongArrayFIFOQueue();
+
+        reachable.add(subscription.root);
+        queue.enqueue(subscription.root);
+
+        var mutable = new BlockPos.Mutable();
+        while (!queue.isEmpty()) {
+            var member = findLoaded(world, mutable.set(queue.dequeueLong()));
+            if (member == null) continue;
+
+            if (member instanceof MultiblockAethumNetworkMember multiblock) {
+                for (var childPos : multiblock.memberBlocks()) {
+                    reachable.add(childPos.asLong());
+                }
+            }
+
+            for (var neighborPos : member.linkedMembers()) {
+                long neighbor = neighborPos.asLong();
+                if (subscription.members.contains(neighbor) && reachable.add(neighbor)) queue.enqueue(neighbor);
+            }
+        }
+
+        subscription.members.retainAll(reachable);
+    }
+
+    private static void forEachSubscriber(World world, long first, long second, SubscriberConsumer action) {
+        var server = world.getServer();
+        if (server == null) return;
+
+        for (var entry : SUBSCRIPTIONS.entrySet()) {
+            var subscription = entry.getValue();
+            if (subscription.world != world.getRegistryKey()) continue;
+            if (!subscription.members.contains(first) && !subscription.members.contains(second)) continue;
+
+            var player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null) continue;
+
+            action.accept(player, subscription);
+        }
+    }
+
+    /**
+     * Walk the network starting at {@code start}, skipping all members the given
+     * subscription already knows about, and send everything that was found to the player
+     * in packets of at most {@link #MAX_MEMBERS_PER_PACKET} members. Only members in
+     * loaded chunks are visited, and only members which were actually sent are recorded
+     * in the subscription - links to unloaded members are sent, but the members themselves
+     * are sent once a link to them is created after they load
+     */
+    private static void sendMembers(ServerPlayerEntity player, Subscription subscription, long start, boolean reset) {
+        var world = player.getWorld();
+        var handle = AffinityNetwork.server(player);
+
+        var batch = new Batch();
+        boolean first = true;
+
+        var visited = new LongOpenHashSet();
+        var queue = new LongArrayFIFOQueue();
+
+        if (!subscription.members.contains(start)) {
+            visited.add(start);
+            queue.enqueue(start);
+        }
+
+        var mutable = new BlockPos.Mutable();
+        while (!queue.isEmpty()) {
+            long memberPos = queue.dequeueLong();
+            mutable.set(memberPos);
+
+            var member = findLoaded(world, mutable);
+            if (member == null) continue;
+
+            subscription.members.add(memberPos);
+            batch.addMember(memberPos, member.fluxCapacity(), member instanceof AethumNetworkNode ? NODE_FLAG : 0);
+
+            if (member instanceof MultiblockAethumNetworkMember multiblock) {
+                for (var childPos : multiblock.memberBlocks()) {
+                    long child = childPos.asLong();
+                    if (child == memberPos || subscription.members.contains(child) || !visited.add(child)) continue;
+
+                    subscription.members.add(child);
+
+                    var childMember = findLoaded(world, childPos);
+                    batch.addMember(child, childMember != null ? childMember.fluxCapacity() : 0, MULTIBLOCK_CHILD_FLAG);
+                }
+            }
+
+            for (var neighborPos : member.linkedMembers()) {
+                long neighbor = neighborPos.asLong();
+                batch.addLink(memberPos, neighbor);
+
+                if (!subscription.members.contains(neighbor) && visited.add(neighbor)) queue.enqueue(neighbor);
+            }
+
+            if (batch.members.size() >= MAX_MEMBERS_PER_PACKET) {
+                handle.send(batch.toPacket(reset && first, false));
+                batch = new Batch();
+                first = false;
+            }
+        }
+
+        handle.send(batch.toPacket(reset && first, true));
+    }
+
+    private static AethumNetworkMember findLoaded(World world, BlockPos pos) {
+        if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) return null;
+        return Affinity.AETHUM_MEMBER.find(world, pos, null);
+    }
+
+    private static class Subscription {
+        private final RegistryKey<World> world;
+        private final long root;
+        private final LongOpenHashSet members = new LongOpenHashSet();
+
+        private Subscription(RegistryKey<World> world, long root) {
+            this.world = world;
+            this.root = root;
+        }
+    }
+
+    private static class Batch {
+        private final LongArrayList members = new LongArrayList();
+        private final LongArrayList capacities = new LongArrayList();
+        private final ByteArrayList flags = new ByteArrayList();
+
+        private final LongArrayList linkFrom = new LongArrayList();
+        private final LongArrayList linkTo = new LongArrayList();
+
+        private void addMember(long pos, long capacity, byte flags) {
+            this.members.add(pos);
+            this.capacities.add(capacity);
+            this.flags.add(flags);
+        }
+
+        private void addLink(long from, long to) {
+            this.linkFrom.add(from);
+            this.linkTo.add(to);
+        }
+
+        private TopologyPacket toPacket(boolean reset, boolean complete) {
+            return new TopologyPacket(
+                    reset, complete,
+                    this.members.toLongArray(), this.capacities.toLongArray(), this.flags.toByteArray(),
+                    this.linkFrom.toLongArray(), this.linkTo.toLongArray()
+            );
+        }
+    }
+
+    @FunctionalInterface
+    private interface SubscriberConsumer {
+        void accept(ServerPlayerEntity player, Subscription subscription);
+    }
+
+    public record SubscribePacket(BlockPos member) {}
+
+    public record UnsubscribePacket() {}
+
+    /**
+     * Part of the topology of a flux network. The first packet sent for a newly opened
+     * screen has {@code reset} set, the last packet of every walk has {@code complete} set
+     */
+    public record TopologyPacket(boolean reset, boolean complete, long[] members, long[] capacities, byte[] flags, long[] linkFrom, long[] linkTo) {
+
+        public static final Endec<TopologyPacket> ENDEC = Endec.of((ctx, serializer, packet) -> {
+            serializer.writeBoolean(ctx, packet.reset);
+            serializer.writeBoolean(ctx, packet.complete);
+
+            serializer.writeVarInt(ctx, packet.members.length);
+            for (int i = 0; i < packet.members.length; i++) {
+                serializer.writeLong(ctx, packet.members[i]);
+                serializer.writeVarLong(ctx, packet.capacities[i]);
+                serializer.writeByte(ctx, packet.flags[i]);
+            }
+
+            serializer.writeVarInt(ctx, packet.linkFrom.length);
+            for (int i = 0; i < packet.linkFrom.length; i++) {
+                serializer.writeLong(ctx, packet.linkFrom[i]);
+                serializer.writeLong(ctx, packet.linkTo[i]);
+            }
+        }, (ctx, deserializer) -> {
+            boolean reset = deserializer.readBoolean(ctx);
+            boolean complete = deserializer.readBoolean(ctx);
+
+            int memberCount = deserializer.readVarInt(ctx);
+            var members = new long[memberCount];
+            var capacities = new long[memberCount];
+            var flags = new byte[memberCount];
+
+            for (int i = 0; i < memberCount; i++) {
+                members[i] = deserializer.readLong(ctx);
+                capacities[i] = deserializer.readVarLong(ctx);
+                flags[i] = deserializer.readByte(ctx);
+            }
+
+            int linkCount = deserializer.readVarInt(ctx);
+            var linkFrom = new long[linkCount];
+            var linkTo = new long[linkCount];
+
+            for (int i = 0; i < linkCount; i++) {
+                linkFrom[i] = deserializer.readLong(ctx);
+                linkTo[i] = deserializer.readLong(ctx);
+            }
+
+            return new TopologyPacket(reset, complete, members, capacities, flags, linkFrom, linkTo);
+        });
+    }
+
+    public record UnlinkPacket(long first, long second) {}
+
+    static {
+        ServerTickEvents.END_SERVER_TICK.register(FluxTopologyHandler::serveDeferredSubscriptions);
+
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            var uuid = handler.getPlayer().getUuid();
+
+            SUBSCRIPTIONS.remove(uuid);
+            LAST_SUBSCRIBE_TICK.remove(uuid);
+            DEFERRED_SUBSCRIPTIONS.remove(uuid);
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            SUBSCRIPTIONS.clear();
+            LAST_SUBSCRIBE_TICK.clear();
+            DEFERRED_SUBSCRIPTIONS.clear();
+        });
+    }
+}
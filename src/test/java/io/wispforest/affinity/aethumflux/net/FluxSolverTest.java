@@ -0,0 +1,85 @@
+package io.wispforest.affinity.aethumflux.net;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FluxSolverTest {
+
+    private static final int MEMBERS = 3;
+
+    /**
+     * Snapshot a network with {@code networkFlux} out of 100 flux and {@link #MEMBERS}
+     * members which could each accept 10 flux, then solve it
+     *
+     * @return The planned transfer of every member
+     */
+    private static long[] solveInsertion(FluxSolver solver, long networkFlux) {
+        solver.reset(networkFlux, 100);
+        solver.endPrioritizedMembers();
+
+        for (int i = 0; i < MEMBERS; i++) {
+            solver.addMember(0, 10);
+        }
+
+        solver.solve();
+
+        var transfers = new long[MEMBERS];
+        for (int i = 0; i < MEMBERS; i++) {
+            transfers[i] = solver.plannedTransfer(i);
+        }
+
+        return transfers;
+    }
+
+    @Test
+    public void remainderRotatesEverySolve() {
+        var solver = new FluxSolver();
+
+        // 5 flux among 3 members is an equal share of 1 each, the remaining 2
+        // go to the member the fairness cursor currently points at
+        assertArrayEquals(new long[]{1, 3, 1}, solveInsertion(solver, 5));
+        assertArrayEquals(new long[]{1, 1, 3}, solveInsertion(solver, 5));
+        assertArrayEquals(new long[]{3, 1, 1}, solveInsertion(solver, 5));
+        assertArrayEquals(new long[]{1, 3, 1}, solveInsertion(solver, 5));
+    }
+
+    @Test
+    public void remainderIsFairInTheLongRun() {
+        var solver = new FluxSolver();
+        var totals = new long[MEMBERS];
+
+        for (int solve = 0; solve < MEMBERS * 100; solve++) {
+            var transfers = solveInsertion(solver, 5);
+
+            long distributed = 0;
+            for (int i = 0; i < MEMBERS; i++) {
+                totals[i] += transfers[i];
+                distributed += transfers[i];
+            }
+
+            assertEquals(5, distributed);
+        }
+
+        assertArrayEquals(new long[]{500, 500, 500}, totals);
+    }
+
+    @Test
+    public void remainderSpillsPastSaturatedMembers() {
+        var solver = new FluxSolver();
+
+        // 26 flux is a share of 8 each, 2 remain - the cursor points at the second member,
+        // which can only take one more before it is full, so the other goes to the third
+        solver.reset(26, 100);
+        solver.endPrioritizedMembers();
+        solver.addMember(0, 10);
+        solver.addMember(0, 9);
+        solver.addMember(0, 10);
+        solver.solve();
+
+        assertEquals(8, solver.plannedTransfer(0));
+        assertEquals(9, solver.plannedTransfer(1));
+        assertEquals(9, solver.plannedTransfer(2));
+    }
+}